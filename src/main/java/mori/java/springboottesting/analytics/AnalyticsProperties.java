@@ -0,0 +1,19 @@
+package mori.java.springboottesting.analytics;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.analytics")
+public class AnalyticsProperties {
+
+    private boolean enabled = false;
+
+    //rows allocated up front, the store doubles when full
+    private int initialCapacity = 1 << 20;
+
+    //full reloads compact deleted rows and pick up writes made by other replicas or the archive job
+    private Duration reloadInterval = Duration.ofMinutes(15);
+
+}
@@ -0,0 +1,253 @@
+package mori.java.springboottesting.analytics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+// Column-oriented copy of the employees table kept outside the Java heap. Strings are dictionary-encoded, so a row
+// is a handful of primitive slots and aggregates scan int columns without creating an object per row.
+// Rows are never moved: deletes clear the live flag and the next reload compacts.
+// Writes and scans share a read-write lock; a scan splits the rows across the common fork-join pool.
+public class EmployeeColumnStore {
+
+    private static final long EMPTY = -1;
+
+    //below this many rows per chunk the fork-join overhead outweighs the scan
+    private static final int MIN_CHUNK_ROWS = 64 * 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final StringDictionary tenants = new StringDictionary();
+
+    private final StringDictionary lastNames = new StringDictionary();
+
+    private final StringDictionary emailDomains = new StringDictionary();
+
+    private LongBuffer idColumn;
+
+    private IntBuffer tenantColumn;
+
+    private IntBuffer lastNameColumn;
+
+    private IntBuffer emailDomainColumn;
+
+    //1 for rows that exist and are not archived
+    private ByteBuffer liveColumn;
+
+    //open-addressing id -> row index, twice the row capacity so probes stay short
+    private LongBuffer indexKeys;
+
+    private IntBuffer indexRows;
+
+    private int capacity;
+
+    private int rows;
+
+    public EmployeeColumnStore(int initialCapacity) {
+        allocate(Integer.highestOneBit(Math.max(1024, initialCapacity) - 1) << 1);
+    }
+
+    public void upsert(long id, String tenantId, String lastName, String email, boolean archived) {
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(id);
+            if (row < 0) {
+                if (rows == capacity) {
+                    allocate(capacity << 1);
+                }
+                row = rows++;
+                idColumn.put(row, id);
+                index(id, row);
+            }
+            tenantColumn.put(row, tenants.encode(tenantId));
+            lastNameColumn.put(row, lastNames.encode(lastName));
+            emailDomainColumn.put(row, emailDomains.encode(emailDomain(email)));
+            liveColumn.put(row, (byte) (archived ? 0 : 1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(id);
+            if (row >= 0) {
+                liveColumn.put(row, (byte) 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long count(String tenantId) {
+        lock.readLock().lock();
+        try {
+            int tenant = tenants.codeOf(tenantId);
+            if (tenant < 0) {
+                return 0;
+            }
+            int chunks = chunks();
+            return IntStream.range(0, chunks).parallel().mapToLong(chunk -> {
+                long count = 0;
+                for (int row = chunkStart(chunk, chunks); row < chunkStart(chunk + 1, chunks); row++) {
+                    if (liveColumn.get(row) == 1 && tenantColumn.get(row) == tenant) {
+                        count++;
+                    }
+                }
+                return count;
+            }).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ValueCount> countByLastName(String tenantId, int limit) {
+        return countBy(lastNameColumn, lastNames, tenantId, limit);
+    }
+
+    public List<ValueCount> countByEmailDomain(String tenantId, int limit) {
+        return countBy(emailDomainColumn, emailDomains, tenantId, limit);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public long sizeInBytes() {
+        return (long) capacity * (Long.BYTES + 3 * Integer.BYTES + 1) + (long) capacity * 2 * (Long.BYTES + Integer.BYTES);
+    }
+
+    //most frequent values first, ties by value
+    private List<ValueCount> countBy(IntBuffer column, StringDictionary dictionary, String tenantId, int limit) {
+        lock.readLock().lock();
+        try {
+            int tenant = tenants.codeOf(tenantId);
+            if (tenant < 0) {
+                return List.of();
+            }
+            int distinct = dictionary.size();
+            int chunks = chunks();
+            int[] counts = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+                int[] chunkCounts = new int[distinct];
+                for (int row = chunkStart(chunk, chunks); row < chunkStart(chunk + 1, chunks); row++) {
+                    if (liveColumn.get(row) == 1 && tenantColumn.get(row) == tenant) {
+                        chunkCounts[column.get(row)]++;
+                    }
+                }
+                return chunkCounts;
+            }).reduce((left, right) -> {
+                for (int code = 0; code < distinct; code++) {
+                    left[code] += right[code];
+                }
+                return left;
+            }).orElseGet(() -> new int[distinct]);
+            List<ValueCount> result = new ArrayList<>();
+            for (int code = 0; code < distinct; code++) {
+                if (counts[code] > 0) {
+                    result.add(new ValueCount(dictionary.decode(code), counts[code]));
+                }
+            }
+            result.sort(Comparator.comparingLong(ValueCount::getCount).reversed().thenComparing(ValueCount::getValue));
+            return result.size() > limit ? new ArrayList<>(result.subList(0, Math.max(0, limit))) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int chunks() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), rows / MIN_CHUNK_ROWS));
+    }
+
+    private int chunkStart(int chunk, int chunks) {
+        return (int) ((long) rows * chunk / chunks);
+    }
+
+    private int rowOf(long id) {
+        int mask = capacity * 2 - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            long key = indexKeys.get(slot);
+            if (key == EMPTY) {
+                return -1;
+            }
+            if (key == id) {
+                return indexRows.get(slot);
+            }
+        }
+    }
+
+    private void index(long id, int row) {
+        int mask = capacity * 2 - 1;
+        int slot = hash(id) & mask;
+        while (indexKeys.get(slot) != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        indexKeys.put(slot, id);
+        indexRows.put(slot, row);
+    }
+
+    private void allocate(int newCapacity) {
+        if (newCapacity <= 0 || newCapacity > (1 << 26)) {
+            throw new IllegalStateException("Column store cannot grow to " + newCapacity + " rows");
+        }
+        idColumn = copy(idColumn, longs(newCapacity));
+        tenantColumn = copy(tenantColumn, ints(newCapacity));
+        lastNameColumn = copy(lastNameColumn, ints(newCapacity));
+        emailDomainColumn = copy(emailDomainColumn, ints(newCapacity));
+        ByteBuffer live = ByteBuffer.allocateDirect(newCapacity);
+        if (liveColumn != null) {
+            live.put(0, liveColumn, 0, rows);
+        }
+        liveColumn = live;
+        capacity = newCapacity;
+        indexKeys = longs(newCapacity * 2);
+        indexRows = ints(newCapacity * 2);
+        for (int slot = 0; slot < newCapacity * 2; slot++) {
+            indexKeys.put(slot, EMPTY);
+        }
+        for (int row = 0; row < rows; row++) {
+            index(idColumn.get(row), row);
+        }
+    }
+
+    private LongBuffer copy(LongBuffer from, LongBuffer to) {
+        if (from != null) {
+            to.put(0, from, 0, rows);
+        }
+        return to;
+    }
+
+    private IntBuffer copy(IntBuffer from, IntBuffer to) {
+        if (from != null) {
+            to.put(0, from, 0, rows);
+        }
+        return to;
+    }
+
+    private static LongBuffer longs(int size) {
+        return ByteBuffer.allocateDirect(size * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static IntBuffer ints(int size) {
+        return ByteBuffer.allocateDirect(size * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static int hash(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    static String emailDomain(String email) {
+        if (email == null) {
+            return "";
+        }
+        int at = email.lastIndexOf('@');
+        return at < 0 ? "" : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+}
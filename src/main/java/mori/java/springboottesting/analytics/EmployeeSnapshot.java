@@ -0,0 +1,128 @@
+package mori.java.springboottesting.analytics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.event.EmployeeEvent;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.shard.ShardContext;
+import mori.java.springboottesting.shard.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// In-process read replica of the employees table for the /api/employees/stats endpoints.
+// Loaded in full at startup and on a schedule, kept current in between from the committed writes of this instance.
+// With sharding every shard is loaded in turn into the same store.
+@Slf4j
+@Component
+@EnableConfigurationProperties(AnalyticsProperties.class)
+@ConditionalOnProperty(name = "employees.analytics.enabled", havingValue = "true")
+public class EmployeeSnapshot {
+
+    private static final String LOAD_SQL = "select id, tenant_id, last_name, email, archived from employees";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AnalyticsProperties properties;
+
+    private final ObjectProvider<ShardRouter> shardRouter;
+
+    private volatile EmployeeColumnStore store;
+
+    //writes committed while a reload streams the table, replayed into the new store before it is swapped in
+    private Queue<Consumer<EmployeeColumnStore>> appliedDuringReload;
+
+    public EmployeeSnapshot(DataSource dataSource, PlatformTransactionManager transactionManager,
+                            AnalyticsProperties properties, ObjectProvider<ShardRouter> shardRouter,
+                            MeterRegistry meterRegistry) {
+        //own template so the streaming fetch size does not leak into other JDBC users
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        Gauge.builder("employees.analytics.rows", this, s -> s.store == null ? 0 : s.store.rows())
+                .register(meterRegistry);
+        Gauge.builder("employees.analytics.memory", this, s -> s.store == null ? 0 : s.store.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    //null until the first load finished
+    public EmployeeColumnStore store() {
+        return store;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeeEvent(EmployeeEvent event) {
+        Consumer<EmployeeColumnStore> change;
+        if (event.getType() == EmployeeEvent.Type.DELETED) {
+            change = target -> target.remove(event.getId());
+        } else {
+            Employee employee = event.getEmployee();
+            change = target -> target.upsert(event.getId(), event.getTenantId(), employee.getLastName(),
+                    employee.getEmail(), employee.isArchived());
+        }
+        if (store != null) {
+            change.accept(store);
+        }
+        if (appliedDuringReload != null) {
+            appliedDuringReload.add(change);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${employees.analytics.reload-interval:PT15M}",
+            initialDelayString = "${employees.analytics.reload-interval:PT15M}")
+    public void reload() {
+        synchronized (this) {
+            appliedDuringReload = new ConcurrentLinkedQueue<>();
+        }
+        try {
+            EmployeeColumnStore loaded = new EmployeeColumnStore(Math.max(properties.getInitialCapacity(),
+                    store == null ? 0 : store.rows()));
+            ShardRouter router = shardRouter.getIfAvailable();
+            int shards = router == null ? 1 : router.shardCount();
+            for (int shard = 0; shard < shards; shard++) {
+                //ignored when sharding is off
+                ShardContext.setShard(shard);
+                try {
+                    readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs ->
+                            loaded.upsert(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getBoolean(5))));
+                } finally {
+                    ShardContext.clear();
+                }
+            }
+            synchronized (this) {
+                appliedDuringReload.forEach(change -> change.accept(loaded));
+                store = loaded;
+            }
+            log.info("Employee snapshot loaded with {} rows ({} bytes off-heap)", loaded.rows(), loaded.sizeInBytes());
+        } finally {
+            synchronized (this) {
+                appliedDuringReload = null;
+            }
+        }
+    }
+}
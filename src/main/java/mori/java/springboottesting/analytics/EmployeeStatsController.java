@@ -0,0 +1,48 @@
+package mori.java.springboottesting.analytics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Aggregates over the current tenant's active employees, answered from EmployeeSnapshot instead of the database.
+// Returns 503 until the first snapshot load finished.
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/employees/stats")
+@ConditionalOnProperty(name = "employees.analytics.enabled", havingValue = "true")
+public class EmployeeStatsController {
+
+    private EmployeeSnapshot employeeSnapshot;
+
+    @GetMapping("count")
+    public ResponseEntity<Map<String, Long>> count() {
+        return fromStore(store -> Map.of("count", store.count(TenantContext.getTenantId())));
+    }
+
+    @GetMapping("email-domains")
+    public ResponseEntity<List<ValueCount>> countByEmailDomain(@RequestParam(defaultValue = "20") int limit) {
+        return fromStore(store -> store.countByEmailDomain(TenantContext.getTenantId(), limit));
+    }
+
+    @GetMapping("last-names")
+    public ResponseEntity<List<ValueCount>> countByLastName(@RequestParam(defaultValue = "20") int limit) {
+        return fromStore(store -> store.countByLastName(TenantContext.getTenantId(), limit));
+    }
+
+    private <T> ResponseEntity<T> fromStore(Function<EmployeeColumnStore, T> query) {
+        EmployeeColumnStore store = employeeSnapshot.store();
+        if (store == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(query.apply(store));
+    }
+}
@@ -0,0 +1,38 @@
+package mori.java.springboottesting.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Dense int codes for the distinct values of one column; codes are never reused, a reload starts a new dictionary.
+// Not thread-safe, EmployeeColumnStore guards it with its lock.
+class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    //-1 when the value never occurred
+    int codeOf(String value) {
+        return codes.getOrDefault(value, -1);
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
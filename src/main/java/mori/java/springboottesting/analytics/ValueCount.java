@@ -0,0 +1,15 @@
+package mori.java.springboottesting.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValueCount {
+
+    private String value;
+
+    private long count;
+}
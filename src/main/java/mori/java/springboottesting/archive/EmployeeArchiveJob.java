@@ -0,0 +1,39 @@
+package mori.java.springboottesting.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.repository.EmployeeArchiveRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Drains rows flagged as archived from the hot employees table into employees_archive, one short transaction per batch
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "employees.archive.enabled", havingValue = "true")
+public class EmployeeArchiveJob {
+
+    private final EmployeeArchiveRepository employeeArchiveRepository;
+
+    private final int batchSize;
+
+    public EmployeeArchiveJob(EmployeeArchiveRepository employeeArchiveRepository,
+                              @Value("${employees.archive.batch-size:1000}") int batchSize) {
+        this.employeeArchiveRepository = employeeArchiveRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${employees.archive.interval:PT5M}", initialDelayString = "${employees.archive.interval:PT5M}")
+    public void moveArchivedEmployees() {
+        long moved = 0;
+        int batch;
+        //one call moves a batch on every shard when sharding is on
+        do {
+            batch = employeeArchiveRepository.moveArchivedBatch(batchSize);
+            moved += batch;
+        } while (batch >= batchSize);
+        if (moved > 0) {
+            log.info("Moved {} archived employees to employees_archive", moved);
+        }
+    }
+}
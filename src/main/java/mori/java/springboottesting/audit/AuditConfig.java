@@ -0,0 +1,31 @@
+package mori.java.springboottesting.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import javax.sql.DataSource;
+import mori.java.springboottesting.repository.AuditEntryRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@ConditionalOnProperty(name = "employees.audit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditSink auditSink(DataSource dataSource, PlatformTransactionManager transactionManager,
+                               AuditEntryRepository auditEntryRepository, ObjectMapper objectMapper) {
+        return new JdbcAuditSink(dataSource, transactionManager, auditEntryRepository, objectMapper);
+    }
+
+    @Bean
+    public AuditTrail auditTrail(AuditSink auditSink, AuditProperties properties, MeterRegistry meterRegistry) {
+        return new AuditTrail(auditSink, properties, Clock.systemUTC(), meterRegistry);
+    }
+}
@@ -0,0 +1,32 @@
+package mori.java.springboottesting.audit;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import mori.java.springboottesting.model.AuditEntry;
+import mori.java.springboottesting.repository.AuditEntryRepository;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Change history of one employee, newest first. Changes of the last flush interval may not be visible yet.
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/employees")
+@ConditionalOnProperty(name = "employees.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private AuditEntryRepository auditEntryRepository;
+
+    @GetMapping("{id}/audit")
+    public List<AuditEntry> history(@PathVariable long id, @RequestParam(defaultValue = "50") int limit) {
+        return auditEntryRepository.findByTenantIdAndEmployeeIdOrderByIdDesc(TenantContext.getTenantId(), id,
+                PageRequest.of(0, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+}
@@ -0,0 +1,24 @@
+package mori.java.springboottesting.audit;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.audit")
+public class AuditProperties {
+
+    private boolean enabled = true;
+
+    //changes held in memory between flushes
+    private int bufferCapacity = 65_536;
+
+    private int batchSize = 500;
+
+    //longest time a change waits in the buffer before it is written
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    //how long a committing request may wait for buffer space when the writer falls behind, then the change is dropped
+    private Duration enqueueTimeout = Duration.ofSeconds(1);
+
+}
@@ -0,0 +1,27 @@
+package mori.java.springboottesting.audit;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import mori.java.springboottesting.event.EmployeeEvent;
+import mori.java.springboottesting.model.Employee;
+
+// A committed change waiting in the audit buffer
+@Data
+@AllArgsConstructor
+public class AuditRecord {
+
+    private EmployeeEvent.Type type;
+
+    private String tenantId;
+
+    private long employeeId;
+
+    private String actor;
+
+    private Instant changedAt;
+
+    private Employee before;
+
+    private Employee after;
+}
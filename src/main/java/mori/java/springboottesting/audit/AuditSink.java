@@ -0,0 +1,9 @@
+package mori.java.springboottesting.audit;
+
+import java.util.List;
+
+// Where AuditTrail's writer thread appends batches of committed changes, in commit order
+public interface AuditSink {
+
+    void write(List<AuditRecord> batch);
+}
@@ -0,0 +1,153 @@
+package mori.java.springboottesting.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.event.EmployeeEvent;
+import mori.java.springboottesting.model.Employee;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// Records every committed employee change without adding a write to the request path. Changes go into a bounded
+// ring buffer when their transaction commits; a single writer thread drains it in batches into the AuditSink,
+// so the sink sees changes in commit order. Rolled back changes are never recorded.
+// Changes still buffered are flushed on shutdown, a crash loses at most one flush interval of them.
+@Slf4j
+public class AuditTrail implements SmartLifecycle {
+
+    public static final String ACTOR_HEADER = "X-Actor";
+
+    static final String SYSTEM_ACTOR = "system";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final AuditSink sink;
+
+    private final AuditProperties properties;
+
+    private final Clock clock;
+
+    private final BlockingQueue<AuditRecord> buffer;
+
+    private final Counter dropped;
+
+    private final Timer flushes;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public AuditTrail(AuditSink sink, AuditProperties properties, Clock clock, MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.properties = properties;
+        this.clock = clock;
+        this.buffer = new ArrayBlockingQueue<>(properties.getBufferCapacity());
+        this.dropped = meterRegistry.counter("employees.audit.dropped");
+        this.flushes = meterRegistry.timer("employees.audit.flush");
+        Gauge.builder("employees.audit.buffered", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent(EmployeeEvent event) {
+        AuditRecord record = new AuditRecord(event.getType(), event.getTenantId(), event.getId(), actor(),
+                clock.instant(), copy(event.getBefore()), copy(event.getEmployee()));
+        try {
+            if (!buffer.offer(record, properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                dropped.increment();
+                log.error("Audit buffer full, dropped {} of employee {}", event.getType(), event.getId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "employee-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(properties.getFlushInterval().toMillis() * 10 + 5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        List<AuditRecord> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !buffer.isEmpty()) {
+            try {
+                AuditRecord first = buffer.poll(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, properties.getBatchSize() - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                //stop() flushes what is left, keep draining until the buffer is empty
+                Thread.interrupted();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<AuditRecord> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushes.record(() -> sink.write(batch));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    dropped.increment(batch.size());
+                    log.error("Dropped {} audit records after {} attempts", batch.size(), attempt, e);
+                    return;
+                }
+                log.warn("Audit flush failed, retrying", e);
+                LockSupport.parkNanos(properties.getFlushInterval().toNanos() * attempt);
+            }
+        }
+    }
+
+    //X-Actor of the request that made the change, "system" for jobs and startup work
+    private static String actor() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            String actor = servletAttributes.getRequest().getHeader(ACTOR_HEADER);
+            if (actor != null && !actor.isBlank()) {
+                return actor.length() > 255 ? actor.substring(0, 255) : actor;
+            }
+        }
+        return SYSTEM_ACTOR;
+    }
+
+    //events carry live entities, the copy is what was committed
+    private static Employee copy(Employee employee) {
+        return employee == null ? null : employee.toBuilder().build();
+    }
+}
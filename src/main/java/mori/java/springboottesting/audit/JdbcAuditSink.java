@@ -0,0 +1,80 @@
+package mori.java.springboottesting.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import mori.java.springboottesting.event.EmployeeEvent;
+import mori.java.springboottesting.model.AuditEntry;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.repository.AuditEntryRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Appends each batch to employee_audit with one JDBC batch insert in one transaction.
+// Deletes and updates of entities the service did not load carry no before state; it is taken from the
+// employee's previous audit entry here, off the request path.
+public class JdbcAuditSink implements AuditSink {
+
+    private static final String INSERT = "insert into employee_audit"
+            + " (tenant_id, employee_id, change_type, actor, changed_at, before_state, after_state)"
+            + " values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AuditEntryRepository auditEntryRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public JdbcAuditSink(DataSource dataSource, PlatformTransactionManager transactionManager,
+                         AuditEntryRepository auditEntryRepository, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.auditEntryRepository = auditEntryRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            //latest after state per employee within this batch
+            Map<String, String> latest = new HashMap<>();
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (AuditRecord record : batch) {
+                String key = record.getTenantId() + ":" + record.getEmployeeId();
+                String before = record.getBefore() != null ? json(record.getBefore()) : previousState(record, key, latest);
+                String after = record.getAfter() != null ? json(record.getAfter()) : null;
+                latest.put(key, after);
+                rows.add(new Object[]{record.getTenantId(), record.getEmployeeId(), record.getType().name(),
+                        record.getActor(), Timestamp.from(record.getChangedAt()), before, after});
+            }
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        });
+    }
+
+    private String previousState(AuditRecord record, String key, Map<String, String> latest) {
+        if (record.getType() == EmployeeEvent.Type.CREATED) {
+            return null;
+        }
+        if (latest.containsKey(key)) {
+            return latest.get(key);
+        }
+        return auditEntryRepository.findFirstByTenantIdAndEmployeeIdOrderByIdDesc(record.getTenantId(),
+                record.getEmployeeId()).map(AuditEntry::getAfterState).orElse(null);
+    }
+
+    private String json(Employee employee) {
+        try {
+            return objectMapper.writeValueAsString(employee);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize employee " + employee.getId(), e);
+        }
+    }
+}
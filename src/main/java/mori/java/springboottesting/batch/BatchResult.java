@@ -0,0 +1,23 @@
+package mori.java.springboottesting.batch;
+
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchResult {
+
+    private String jobName;
+
+    private int chunks;
+
+    //chunks already completed by an earlier, interrupted run
+    private int resumedChunks;
+
+    private long processed;
+
+    private long modified;
+
+    private Duration elapsed;
+}
@@ -0,0 +1,37 @@
+package mori.java.springboottesting.batch;
+
+import java.util.Locale;
+import mori.java.springboottesting.model.Employee;
+import org.springframework.stereotype.Component;
+
+// Trims emails and lower-cases their domain part; the local part is left alone since it may be case-sensitive
+@Component
+public class EmailNormalizationJob implements EmployeeBatchJob {
+
+    public static final String NAME = "email-normalization";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean process(Employee employee) {
+        String email = employee.getEmail();
+        String normalized = normalize(email);
+        if (normalized.equals(email)) {
+            return false;
+        }
+        employee.setEmail(normalized);
+        return true;
+    }
+
+    static String normalize(String email) {
+        String trimmed = email.trim();
+        int at = trimmed.lastIndexOf('@');
+        if (at < 0) {
+            return trimmed;
+        }
+        return trimmed.substring(0, at + 1) + trimmed.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+}
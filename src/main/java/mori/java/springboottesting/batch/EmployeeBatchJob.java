@@ -0,0 +1,15 @@
+package mori.java.springboottesting.batch;
+
+import mori.java.springboottesting.model.Employee;
+
+// One pass over every employee of the current tenant, run by EmployeeBatchService.
+// Implementations must be thread-safe: chunks are processed concurrently.
+public interface EmployeeBatchJob {
+
+    //checkpoints are stored under this name, so it must stay stable across restarts
+    String name();
+
+    //called inside the chunk's transaction; changes to the managed entity are flushed on commit
+    //returns true when the employee was changed
+    boolean process(Employee employee);
+}
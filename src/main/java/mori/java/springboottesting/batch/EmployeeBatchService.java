@@ -0,0 +1,225 @@
+package mori.java.springboottesting.batch;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.cache.CacheConfig;
+import mori.java.springboottesting.email.EmailFilter;
+import mori.java.springboottesting.event.EmployeeEvent;
+import mori.java.springboottesting.model.BatchCheckpoint;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.repository.BatchCheckpointRepository;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import mori.java.springboottesting.shard.ShardContext;
+import mori.java.springboottesting.shard.ShardRouter;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Runs an EmployeeBatchJob over the current tenant's employees, split into id ranges processed in parallel.
+// Every chunk streams its rows in its own transaction and commits a checkpoint with its changes, so a run that
+// fails or is interrupted can be started again under the same job name and skips the chunks already done.
+// Ranges hold chunk-size rows each (ids are sparse), so a chunk whose start moved because rows were deleted between
+// the runs is processed again. With sharding every shard is split on its own and a chunk runs on its shard.
+// Keep the parallelism below spring.datasource.hikari.maximum-pool-size, each worker holds a connection.
+@Slf4j
+@Service
+public class EmployeeBatchService {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final BatchCheckpointRepository checkpointRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EmailFilter emailFilter;
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    private final ObjectProvider<ShardRouter> shardRouter;
+
+    private final Map<String, EmployeeBatchJob> jobs = new HashMap<>();
+
+    private final int defaultParallelism;
+
+    private final int defaultChunkSize;
+
+    public EmployeeBatchService(EmployeeRepository employeeRepository, BatchCheckpointRepository checkpointRepository,
+                                PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                EmailFilter emailFilter, ObjectProvider<CacheManager> cacheManager,
+                                ObjectProvider<ShardRouter> shardRouter, List<EmployeeBatchJob> jobs,
+                                @Value("${employees.batch.parallelism:4}") int defaultParallelism,
+                                @Value("${employees.batch.chunk-size:10000}") int defaultChunkSize) {
+        this.employeeRepository = employeeRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.emailFilter = emailFilter;
+        this.cacheManager = cacheManager;
+        this.shardRouter = shardRouter;
+        jobs.forEach(job -> this.jobs.put(job.name(), job));
+        this.defaultParallelism = defaultParallelism;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    public BatchResult run(String jobName) {
+        EmployeeBatchJob job = jobs.get(jobName);
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown batch job " + jobName + ", known jobs are " + jobs.keySet());
+        }
+        return run(job, defaultParallelism, defaultChunkSize);
+    }
+
+    public BatchResult run(EmployeeBatchJob job, int parallelism, int chunkSize) {
+        Instant start = Instant.now();
+        String tenantId = TenantContext.getTenantId();
+        int shards = shardCount();
+        List<IdRange> ranges = new ArrayList<>();
+        Set<Long> completed = new HashSet<>();
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            ranges.addAll(onShard(target, () -> split(target, chunkSize)));
+            completed.addAll(onShard(target, () -> checkpointRepository.findByJobName(job.name()).stream()
+                    .map(BatchCheckpoint::getRangeStart).collect(Collectors.toSet())));
+        }
+        List<IdRange> pending = ranges.stream().filter(range -> !completed.contains(range.getFrom())).toList();
+        if (!completed.isEmpty()) {
+            log.info("Resuming batch job {}: {} of {} chunks already done", job.name(), ranges.size() - pending.size(),
+                    ranges.size());
+        }
+
+        long processed = 0;
+        long modified = 0;
+        List<Throwable> failures = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<long[]>> chunks = new ArrayList<>(pending.size());
+            for (IdRange range : pending) {
+                chunks.add(pool.submit(() -> processChunk(job, range, tenantId)));
+            }
+            for (Future<long[]> chunk : chunks) {
+                try {
+                    long[] counts = chunk.get();
+                    processed += counts[0];
+                    modified += counts[1];
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch job " + job.name() + " interrupted, rerun it to resume", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        if (!failures.isEmpty()) {
+            IllegalStateException failed = new IllegalStateException("Batch job " + job.name() + " failed in "
+                    + failures.size() + " chunks, rerun it to resume", failures.get(0));
+            failures.stream().skip(1).forEach(failed::addSuppressed);
+            throw failed;
+        }
+
+        for (int shard = 0; shard < shards; shard++) {
+            onShard(shard, () -> {
+                checkpointRepository.deleteByJobName(job.name());
+                return null;
+            });
+        }
+        BatchResult result = new BatchResult(job.name(), ranges.size(), ranges.size() - pending.size(), processed,
+                modified, Duration.between(start, Instant.now()));
+        log.info("Batch job {} finished: {}", job.name(), result);
+        return result;
+    }
+
+    private int shardCount() {
+        ShardRouter router = shardRouter.getIfAvailable();
+        return router == null ? 1 : router.shardCount();
+    }
+
+    //ids grow with time, so rows added later land in the last range and earlier ranges keep their start
+    private List<IdRange> split(int shard, int chunkSize) {
+        List<Long> starts = employeeRepository.findChunkStartIds(chunkSize);
+        List<IdRange> ranges = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            long to = i + 1 < starts.size() ? starts.get(i + 1) : Long.MAX_VALUE;
+            ranges.add(new IdRange(starts.get(i), to, shard));
+        }
+        return ranges;
+    }
+
+    //in a transaction on the shard, which is ignored when sharding is off
+    private <T> T onShard(int shard, Supplier<T> work) {
+        ShardContext.setShard(shard);
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    private long[] processChunk(EmployeeBatchJob job, IdRange range, String tenantId) {
+        TenantContext.setTenantId(tenantId);
+        try {
+            return onShard(range.getShard(), () -> {
+                long processed = 0;
+                long modified = 0;
+                try (Stream<Employee> employees = employeeRepository.streamByIdRange(range.getFrom(), range.getTo())) {
+                    Iterator<Employee> iterator = employees.iterator();
+                    while (iterator.hasNext()) {
+                        Employee employee = iterator.next();
+                        processed++;
+                        if (job.process(employee)) {
+                            modified++;
+                            changed(employee, tenantId);
+                        }
+                    }
+                }
+                checkpointRepository.save(BatchCheckpoint.builder()
+                        .id(TenantContext.key(job.name() + ":" + range.getFrom()))
+                        .jobName(job.name())
+                        .rangeStart(range.getFrom())
+                        .rangeEnd(range.getTo())
+                        .processed(processed)
+                        .modified(modified)
+                        .completedAt(Instant.now())
+                        .build());
+                return new long[]{processed, modified};
+            });
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    //what EmployeeServiceImpl.updateEmployee does besides saving, since jobs change entities directly
+    private void changed(Employee employee, String tenantId) {
+        emailFilter.add(employee.getEmail());
+        eventPublisher.publishEvent(
+                new EmployeeEvent(EmployeeEvent.Type.UPDATED, employee.getId(), tenantId, null, employee));
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager == null ? null : manager.getCache(CacheConfig.EMPLOYEES);
+        if (cache != null) {
+            cache.evict(TenantContext.key(employee.getId()));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package mori.java.springboottesting.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//[from, to)
+@Data
+@AllArgsConstructor
+public class IdRange {
+
+    private long from;
+
+    private long to;
+
+    //ShardContext shard the range is on, 0 without sharding
+    private int shard;
+}
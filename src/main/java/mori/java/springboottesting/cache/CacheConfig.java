@@ -0,0 +1,48 @@
+package mori.java.springboottesting.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import mori.java.springboottesting.resilience.ResilientReadAspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//outside the @ResilientRead advice, so a hit is answered on the request thread without a bulkhead permit
+@Configuration
+@EnableCaching(order = ResilientReadAspect.ORDER - 1)
+@ConditionalOnProperty(name = "employees.cache.enabled", havingValue = "true")
+@EnableConfigurationProperties(EmployeeCacheProperties.class)
+public class CacheConfig {
+
+    public static final String EMPLOYEES = "employees";
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SharedCache sharedCache() {
+        return new InProcessSharedCache();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public InvalidationBus invalidationBus(EmployeeCacheProperties properties, DataSource dataSource,
+                                           DataSourceProperties dataSourceProperties) {
+        if (properties.getInvalidation() == EmployeeCacheProperties.Invalidation.POSTGRES) {
+            return new PostgresInvalidationBus(dataSource, dataSourceProperties);
+        }
+        return new LocalInvalidationBus();
+    }
+
+    //puts and evictions are applied after commit, so other replicas never reload the pre-commit row
+    @Bean
+    public CacheManager cacheManager(SharedCache sharedCache, InvalidationBus invalidationBus,
+                                     EmployeeCacheProperties properties, MeterRegistry meterRegistry) {
+        return new TransactionAwareCacheManagerProxy(
+                new TwoLevelCacheManager(sharedCache, invalidationBus, properties, meterRegistry));
+    }
+}
@@ -0,0 +1,23 @@
+package mori.java.springboottesting.cache;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.cache")
+public class EmployeeCacheProperties {
+
+    private boolean enabled = false;
+
+    private Invalidation invalidation = Invalidation.LOCAL;
+
+    //upper bound on how long any replica can serve a value after it was changed elsewhere
+    private Duration maxStaleness = Duration.ofSeconds(30);
+
+    private long nearMaximumSize = 10_000;
+
+    public enum Invalidation {
+        LOCAL, POSTGRES
+    }
+}
@@ -0,0 +1,52 @@
+package mori.java.springboottesting.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import lombok.AllArgsConstructor;
+import mori.java.springboottesting.model.Employee;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/hibernatecache: hit, miss and put counts per second-level cache region
+@Component
+@AllArgsConstructor
+@Endpoint(id = "hibernatecache")
+public class HibernateCacheEndpoint {
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Set<String> regionNames = new TreeSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()));
+        regionNames.add(Employee.NAME_QUERY_CACHE_REGION);
+
+        Map<String, Object> regions = new TreeMap<>();
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                Map<String, Object> counts = new LinkedHashMap<>();
+                counts.put("hits", region.getHitCount());
+                counts.put("misses", region.getMissCount());
+                counts.put("puts", region.getPutCount());
+                counts.put("elementsInMemory", region.getElementCountInMemory());
+                regions.put(regionName, counts);
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        result.put("regions", regions);
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+package mori.java.springboottesting.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InProcessSharedCache implements SharedCache {
+
+    private final Map<String, Map<String, Entry>> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public Object get(String cacheName, String key) {
+        Map<String, Entry> cache = cache(cacheName);
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() - System.nanoTime() < 0) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void put(String cacheName, String key, Object value, Duration ttl) {
+        cache(cacheName).put(key, new Entry(value, System.nanoTime() + ttl.toNanos()));
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        cache(cacheName).remove(key);
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        cache(cacheName).clear();
+    }
+
+    private Map<String, Entry> cache(String cacheName) {
+        return caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+    }
+
+    private record Entry(Object value, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,13 @@
+package mori.java.springboottesting.cache;
+
+// Broadcasts near-cache invalidations to every replica. A null key clears the whole cache.
+public interface InvalidationBus {
+
+    void publish(String cacheName, String key);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+        void invalidate(String cacheName, String key);
+    }
+}
@@ -0,0 +1,19 @@
+package mori.java.springboottesting.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String cacheName, String key) {
+        listeners.forEach(listener -> listener.invalidate(cacheName, key));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+}
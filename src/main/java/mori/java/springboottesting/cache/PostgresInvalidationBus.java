@@ -0,0 +1,125 @@
+package mori.java.springboottesting.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+// Invalidation over PostgreSQL LISTEN/NOTIFY. Notifications are sent through a pooled connection and
+// received on a dedicated listening connection outside the pool, reopened after failures.
+// Every replica also receives its own messages, which are skipped by node id.
+@Slf4j
+public class PostgresInvalidationBus implements InvalidationBus, DisposableBean {
+
+    static final String CHANNEL = "employee_cache_invalidation";
+
+    private static final String CLEAR = "*";
+
+    private final DataSource dataSource;
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Thread listenerThread;
+
+    private volatile boolean running = true;
+
+    public PostgresInvalidationBus(DataSource dataSource, DataSourceProperties dataSourceProperties) {
+        this.dataSource = dataSource;
+        this.dataSourceProperties = dataSourceProperties;
+        this.listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        this.listenerThread.setDaemon(true);
+        this.listenerThread.start();
+    }
+
+    @Override
+    public void publish(String cacheName, String key) {
+        String payload = nodeId + "|" + cacheName + "|" + (key == null ? CLEAR : key);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement notify = connection.prepareStatement("select pg_notify(?, ?)")) {
+            notify.setString(1, CHANNEL);
+            notify.setString(2, payload);
+            notify.execute();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            //peers fall back to the near-cache expiry, which bounds how stale they can get
+            log.warn("Could not publish cache invalidation {}", payload, e);
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener lost its connection, reconnecting", e);
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        String key = CLEAR.equals(parts[2]) ? null : parts[2];
+        listeners.forEach(listener -> listener.invalidate(parts[1], key));
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        listenerThread.interrupt();
+        listenerThread.join(2000);
+    }
+}
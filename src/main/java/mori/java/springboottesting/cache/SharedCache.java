@@ -0,0 +1,18 @@
+package mori.java.springboottesting.cache;
+
+import java.time.Duration;
+
+// Cache tier shared by every replica (Redis, Hazelcast, ...). InProcessSharedCache stands in for it in tests
+// and single-node deployments.
+public interface SharedCache {
+
+    Object get(String cacheName, String key);
+
+    //entries expire after ttl, so a put racing with an eviction from another replica is only stale for ttl
+    void put(String cacheName, String key, Object value, Duration ttl);
+
+    void evict(String cacheName, String key);
+
+    void clear(String cacheName);
+
+}
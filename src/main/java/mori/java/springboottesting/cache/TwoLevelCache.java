@@ -0,0 +1,151 @@
+package mori.java.springboottesting.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+// Near cache per replica in front of the shared tier. Near entries expire after maxStaleness, which bounds
+// staleness even when an invalidation message is lost; writes evict both tiers and notify the other replicas.
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> near;
+
+    private final SharedCache shared;
+
+    private final InvalidationBus invalidationBus;
+
+    private final Duration maxStaleness;
+
+    private final TierStatistics nearStatistics;
+
+    private final TierStatistics sharedStatistics;
+
+    public TwoLevelCache(String name, SharedCache shared, InvalidationBus invalidationBus,
+                         EmployeeCacheProperties properties, MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.near = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getMaxStaleness())
+                .maximumSize(properties.getNearMaximumSize())
+                .build();
+        this.shared = shared;
+        this.invalidationBus = invalidationBus;
+        this.maxStaleness = properties.getMaxStaleness();
+        this.nearStatistics = new TierStatistics(name, "near", meterRegistry);
+        this.sharedStatistics = new TierStatistics(name, "shared", meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return near;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = key.toString();
+        Object value = near.getIfPresent(cacheKey);
+        nearStatistics.record(value != null);
+        if (value != null) {
+            return value;
+        }
+        value = shared.get(name, cacheKey);
+        sharedStatistics.record(value != null);
+        if (value != null) {
+            near.put(cacheKey, value);
+        }
+        return value;
+    }
+
+    //a near miss is resolved under the key's lock, so concurrent misses on one key read the shared tier
+    //and call the loader once
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] nearMiss = new boolean[1];
+        Object value = near.get(key.toString(), cacheKey -> {
+            nearMiss[0] = true;
+            Object sharedValue = shared.get(name, cacheKey);
+            sharedStatistics.record(sharedValue != null);
+            if (sharedValue != null) {
+                return sharedValue;
+            }
+            Object storeValue;
+            try {
+                storeValue = toStoreValue(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            shared.put(name, cacheKey, storeValue, maxStaleness);
+            return storeValue;
+        });
+        nearStatistics.record(!nearMiss[0]);
+        return (T) fromStoreValue(value);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String cacheKey = key.toString();
+        Object storeValue = toStoreValue(value);
+        shared.put(name, cacheKey, storeValue, maxStaleness);
+        near.put(cacheKey, storeValue);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = key.toString();
+        near.invalidate(cacheKey);
+        shared.evict(name, cacheKey);
+        invalidationBus.publish(name, cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        near.invalidateAll();
+        shared.clear(name);
+        invalidationBus.publish(name, null);
+    }
+
+    //invalidation received from another replica, the shared tier was already evicted by the writer
+    void invalidateNear(String key) {
+        if (key == null) {
+            near.invalidateAll();
+        } else {
+            near.invalidate(key);
+        }
+    }
+
+    private static final class TierStatistics {
+
+        private final Counter hits;
+
+        private final Counter misses;
+
+        private TierStatistics(String cacheName, String tier, MeterRegistry meterRegistry) {
+            this.hits = meterRegistry.counter("employees.cache.requests", "cache", cacheName, "tier", tier, "result", "hit");
+            this.misses = meterRegistry.counter("employees.cache.requests", "cache", cacheName, "tier", tier, "result", "miss");
+            Gauge.builder("employees.cache.hit.ratio", this, TierStatistics::hitRatio)
+                    .tags("cache", cacheName, "tier", tier)
+                    .register(meterRegistry);
+        }
+
+        private void record(boolean hit) {
+            (hit ? hits : misses).increment();
+        }
+
+        private double hitRatio() {
+            double requests = hits.count() + misses.count();
+            return requests == 0 ? 0 : hits.count() / requests;
+        }
+    }
+}
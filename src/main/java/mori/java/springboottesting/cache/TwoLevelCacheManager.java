@@ -0,0 +1,47 @@
+package mori.java.springboottesting.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    private final SharedCache shared;
+
+    private final InvalidationBus invalidationBus;
+
+    private final EmployeeCacheProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public TwoLevelCacheManager(SharedCache shared, InvalidationBus invalidationBus,
+                                EmployeeCacheProperties properties, MeterRegistry meterRegistry) {
+        this.shared = shared;
+        this.invalidationBus = invalidationBus;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        invalidationBus.subscribe((cacheName, key) -> {
+            TwoLevelCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.invalidateNear(key);
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name,
+                cacheName -> new TwoLevelCache(cacheName, shared, invalidationBus, properties, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+}
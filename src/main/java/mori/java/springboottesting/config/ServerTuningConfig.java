@@ -0,0 +1,56 @@
+package mori.java.springboottesting.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Buffer settings of the performance profile that have no server.* property, see application-performance.properties
+@Configuration
+@Profile("performance")
+public class ServerTuningConfig {
+
+    //works on every embedded server: the servlet response buffer decides when a response is committed and chunked
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> responseBufferFilter(
+            @Value("${employees.server.response-buffer-size:32KB}") DataSize bufferSize) {
+        int bytes = (int) bufferSize.toBytes();
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                response.setBufferSize(bytes);
+                chain.doFilter(request, response);
+            }
+        });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+    static class TomcatTuning {
+
+        @Bean
+        public WebServerFactoryCustomizer<TomcatServletWebServerFactory> tomcatSocketBuffers(
+                @Value("${employees.server.socket-send-buffer-size:64KB}") DataSize sendBufferSize) {
+            return factory -> factory.addConnectorCustomizers(connector -> {
+                connector.setProperty("socket.txBufSize", String.valueOf(sendBufferSize.toBytes()));
+                connector.setProperty("socket.appWriteBufSize", String.valueOf(sendBufferSize.toBytes()));
+                connector.setProperty("socket.tcpNoDelay", "true");
+            });
+        }
+    }
+}
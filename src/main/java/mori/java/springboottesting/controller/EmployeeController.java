@@ -1,10 +1,21 @@
 package mori.java.springboottesting.controller;
 
-import java.util.List;
+import java.util.Optional;
 import lombok.AllArgsConstructor;
+import mori.java.springboottesting.idempotency.IdempotencyService;
+import mori.java.springboottesting.idempotency.IdempotentResult;
+import mori.java.springboottesting.json.EmployeeJdbcReader;
 import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.query.EmployeeFilter;
+import mori.java.springboottesting.query.EmployeeQueryAllowList;
+import mori.java.springboottesting.query.InvalidEmployeeQueryException;
 import mori.java.springboottesting.service.impl.EmployeeServiceImpl;
+import mori.java.springboottesting.sql.StatementBudget;
+import mori.java.springboottesting.warmup.HotEmployeeKeys;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,41 +24,93 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private EmployeeServiceImpl employeeService;
 
+    private IdempotencyService idempotencyService;
+
+    //present with employees.read-path.mode=jdbc, see ReadPathConfig
+    private ObjectProvider<EmployeeJdbcReader> jdbcReader;
+
+    //present unless employees.warmup.enabled=false, see WarmupConfig
+    private ObjectProvider<HotEmployeeKeys> hotKeys;
+
+    //retries carrying the same Idempotency-Key get the original response back
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee) {
-        return employeeService.saveEmployee(employee);
+    @StatementBudget(4)
+    public ResponseEntity<Employee> createEmployee(@RequestBody Employee employee,
+                                                   @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return new ResponseEntity<>(employeeService.saveEmployee(employee), HttpStatus.CREATED);
+        }
+        IdempotentResult result = idempotencyService.execute(idempotencyKey, employee,
+                () -> employeeService.saveEmployee(employee));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.isReplayed()))
+                .body(result.getBody());
     }
 
+    //the whole list without filter, sort or paging, otherwise one page with its total in X-Total-Count
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<Employee> createEmployee() {
-        return employeeService.getAllEmployees();
+    @StatementBudget(2)
+    public ResponseEntity<?> getAllEmployees(@RequestParam(defaultValue = "false") boolean includeArchived,
+                                             EmployeeFilter filter,
+                                             @RequestParam(required = false) String sort,
+                                             @RequestParam(required = false) Integer page,
+                                             @RequestParam(required = false) Integer size) {
+        if (filter.isEmpty() && sort == null && page == null && size == null) {
+            EmployeeJdbcReader reader = jdbcReader.getIfAvailable();
+            return reader == null
+                    ? ResponseEntity.ok(employeeService.getAllEmployees(includeArchived))
+                    : ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(reader.allEmployees(includeArchived));
+        }
+        if (includeArchived) {
+            throw new InvalidEmployeeQueryException("includeArchived cannot be combined with filters, sort or paging");
+        }
+        Page<Employee> employees = employeeService.findEmployees(filter,
+                EmployeeQueryAllowList.pageRequest(filter, sort, page, size));
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(employees.getTotalElements()))
+                .body(employees.getContent());
     }
 
+    //the archive is only read when the employee is not in the hot table
     @GetMapping("{id}")
+    @StatementBudget(2)
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Employee> createEmployee(@PathVariable long id) {
-        return employeeService.getEmployeeById(id).map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
-
+    public ResponseEntity<?> getEmployeeById(@PathVariable long id) {
+        EmployeeJdbcReader reader = jdbcReader.getIfAvailable();
+        Optional<?> employee = reader != null ? reader.findById(id) : employeeService.getEmployeeById(id);
+        if (employee.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        //only ids that exist are worth warming on the next start
+        hotKeys.ifAvailable(keys -> keys.record(id));
+        return ResponseEntity.ok(employee.get());
     }
 
     @PutMapping("{id}")
+    @StatementBudget(2)
     public ResponseEntity<Employee> updateEmployee(@PathVariable long id, @RequestBody Employee employee) {
-        return employeeService.getEmployeeById(id).map(savedEmployee -> {
-            savedEmployee.setFirstName(employee.getFirstName());
-            savedEmployee.setLastName(employee.getLastName());
-            savedEmployee.setEmail(employee.getEmail());
-
-            Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-            return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-        }).orElseGet(() -> ResponseEntity.notFound().build());
+        return employeeService.updateEmployee(id, employee)
+                .map(updatedEmployee -> new ResponseEntity<>(updatedEmployee, HttpStatus.OK))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("{id}/archive")
+    @StatementBudget(2)
+    public ResponseEntity<Employee> archiveEmployee(@PathVariable long id) {
+        return employeeService.archiveEmployee(id).map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("{id}")
+    @StatementBudget(1)
     public ResponseEntity<String> deleteEmployee(@PathVariable long id) {
         employeeService.deleteEmployee(id);
         return new ResponseEntity<String>("Emloyee deleted successfully!.", HttpStatus.OK);
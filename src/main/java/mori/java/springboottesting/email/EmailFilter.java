@@ -0,0 +1,141 @@
+package mori.java.springboottesting.email;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Bloom filter over every email in the employees table, so saveEmployee can skip its findByEmail query for an
+// email the filter has never seen. The filter only knows the emails of its last rebuild and of this replica's own
+// writes; an email saved since by another replica, a job or an import reads as new, and the unique constraint on
+// (tenant_id, email_normalized) rejects it at commit. Emails are only ever added; updates and deletes leave
+// stale bits behind, which the periodic rebuild clears. Entries are keyed by tenant, since emails are only
+// unique within one tenant, and by normalized email, since lookups ignore case.
+@Slf4j
+@Component
+@EnableConfigurationProperties(EmailFilterProperties.class)
+public class EmailFilter {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final EmailFilterProperties properties;
+
+    private final Counter negatives;
+
+    private final Counter positives;
+
+    private final Counter falsePositives;
+
+    private final AtomicLong insertions = new AtomicLong();
+
+    private volatile EmailBloomFilter filter;
+
+    //keys added while a rebuild streams the table, replayed into the new filter before it is swapped in
+    private Queue<String> addedDuringRebuild;
+
+    public EmailFilter(EmployeeRepository employeeRepository, PlatformTransactionManager transactionManager,
+                       EmailFilterProperties properties, MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+        this.negatives = meterRegistry.counter("employees.email.filter.checks", "result", "negative");
+        this.positives = meterRegistry.counter("employees.email.filter.checks", "result", "positive");
+        this.falsePositives = meterRegistry.counter("employees.email.filter.false.positives");
+        Gauge.builder("employees.email.filter.memory", this, f -> f.filter == null ? 0 : f.filter.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // true while the filter is disabled or not built yet, so callers fall back to the database
+    public boolean mightContain(String email) {
+        EmailBloomFilter current = filter;
+        if (current == null || email == null) {
+            return true;
+        }
+        boolean mightContain = current.mightContain(key(email));
+        (mightContain ? positives : negatives).increment();
+        return mightContain;
+    }
+
+    public synchronized void add(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = key(email);
+        if (filter != null) {
+            filter.put(key);
+            insertions.incrementAndGet();
+        }
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(key);
+        }
+    }
+
+    private static String key(String email) {
+        return TenantContext.key(Employee.normalizeEmail(email));
+    }
+
+    //a positive answered before the first build is no false positive of the filter
+    public void recordFalsePositive() {
+        if (filter != null) {
+            falsePositives.increment();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${employees.email-filter.rebuild-interval:PT1H}",
+            initialDelayString = "${employees.email-filter.rebuild-interval:PT1H}")
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            addedDuringRebuild = new ConcurrentLinkedQueue<>();
+        }
+        try {
+            // size for at least twice the current population so growth until the next rebuild keeps the rate
+            long expected = Math.max(properties.getExpectedInsertions(), insertions.get() * 2);
+            EmailBloomFilter rebuilt = new EmailBloomFilter(expected, properties.getFalsePositiveRate());
+            AtomicLong count = new AtomicLong();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> keys = employeeRepository.streamAllTenantEmailKeys()) {
+                    keys.forEach(key -> {
+                        rebuilt.put(key);
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            synchronized (this) {
+                addedDuringRebuild.forEach(rebuilt::put);
+                filter = rebuilt;
+                insertions.set(count.get());
+            }
+            log.info("Email filter rebuilt with {} emails ({} bytes)", count.get(), rebuilt.sizeInBytes());
+        } finally {
+            synchronized (this) {
+                addedDuringRebuild = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package mori.java.springboottesting.email;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.email-filter")
+public class EmailFilterProperties {
+
+    private boolean enabled = true;
+
+    private long expectedInsertions = 1_000_000;
+
+    private double falsePositiveRate = 0.01;
+
+    private Duration rebuildInterval = Duration.ofHours(1);
+
+}
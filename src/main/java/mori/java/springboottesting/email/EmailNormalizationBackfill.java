@@ -0,0 +1,43 @@
+package mori.java.springboottesting.email;
+
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Fills employees.email_normalized and email_domain for rows written before the columns existed. Runs before the application reports
+// ready, in short batches that each commit on their own, so the table stays writable and other instances keep serving.
+// Once every row is filled this is a single no-op UPDATE per start.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EmailNormalizationBackfill implements ApplicationRunner {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final int batchSize;
+
+    public EmailNormalizationBackfill(EmployeeRepository employeeRepository,
+                                      @Value("${employees.email-normalization.backfill-batch-size:1000}") int batchSize) {
+        this.employeeRepository = employeeRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long filled = 0;
+        int batch;
+        //one call fills a batch on every shard when sharding is on
+        do {
+            batch = employeeRepository.backfillEmailColumns(batchSize);
+            filled += batch;
+        } while (batch >= batchSize);
+        if (filled > 0) {
+            log.info("Backfilled normalized email columns for {} employees", filled);
+        }
+    }
+}
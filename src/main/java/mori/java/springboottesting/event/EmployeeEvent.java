@@ -0,0 +1,28 @@
+package mori.java.springboottesting.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import mori.java.springboottesting.model.Employee;
+
+// Published by EmployeeServiceImpl for every write, inside the writing transaction.
+// Listeners that mirror the table should use @TransactionalEventListener so rolled back writes are never seen.
+@Data
+@AllArgsConstructor
+public class EmployeeEvent {
+
+    public enum Type {
+        CREATED, UPDATED, ARCHIVED, DELETED
+    }
+
+    private Type type;
+
+    private long id;
+
+    private String tenantId;
+
+    //state before the write when the service had it loaded anyway, otherwise null
+    private Employee before;
+
+    //state after the write, null for DELETED
+    private Employee employee;
+}
@@ -0,0 +1,85 @@
+package mori.java.springboottesting.exception;
+
+import java.util.Locale;
+import mori.java.springboottesting.idempotency.IdempotencyKeyInProgressException;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.idempotency.IdempotencyKeyReusedException;
+import mori.java.springboottesting.query.InvalidEmployeeQueryException;
+import mori.java.springboottesting.resilience.EmployeeDataUnavailableException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// RFC 7807 bodies for the expected client errors, resolved before Spring's /error forward and its 500 page.
+// The exceptions carry no stack trace, so this path costs about as much as a success response.
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ProblemDetail handleNotFound(ResourceNotFoundException e) {
+        return problem(HttpStatus.NOT_FOUND, "Employee not found", e);
+    }
+
+    @ExceptionHandler(InvalidEmployeeQueryException.class)
+    public ProblemDetail handleInvalidQuery(InvalidEmployeeQueryException e) {
+        return problem(HttpStatus.BAD_REQUEST, "Unsupported employee query", e);
+    }
+
+    @ExceptionHandler(EmployeeAlreadyExistsException.class)
+    public ProblemDetail handleAlreadyExists(EmployeeAlreadyExistsException e) {
+        return problem(HttpStatus.CONFLICT, "Employee already exists", e);
+    }
+
+    //a duplicate the email filter let through, rejected by the database when the transaction committed
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ProblemDetail handleIntegrityViolation(DataIntegrityViolationException e) {
+        if (isEmailConflict(e)) {
+            ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                    "Employee already exist with given email");
+            problem.setTitle("Employee already exists");
+            return problem;
+        }
+        ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.CONFLICT);
+        problem.setTitle("Conflicting employee data");
+        return problem;
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ProblemDetail handleKeyInProgress(IdempotencyKeyInProgressException e) {
+        return problem(HttpStatus.CONFLICT, "Request in progress", e);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ProblemDetail handleKeyReused(IdempotencyKeyReusedException e) {
+        return problem(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key reused", e);
+    }
+
+    //the database cannot answer and there is no earlier result to fall back on; retry once the circuit may have closed
+    @ExceptionHandler(EmployeeDataUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleDataUnavailable(EmployeeDataUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(problem(HttpStatus.SERVICE_UNAVAILABLE, "Employee data unavailable", e));
+    }
+
+    private static boolean isEmailConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ProblemDetail problem(HttpStatus status, String title, RuntimeException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, e.getMessage());
+        problem.setTitle(title);
+        return problem;
+    }
+}
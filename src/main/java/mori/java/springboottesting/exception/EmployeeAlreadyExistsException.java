@@ -0,0 +1,9 @@
+package mori.java.springboottesting.exception;
+
+//thrown on expected, client-caused paths, so no stack trace is captured; ApiExceptionHandler maps it to 409
+public class EmployeeAlreadyExistsException extends RuntimeException {
+    public EmployeeAlreadyExistsException(String message) {
+        super(message, null, false, false);
+    }
+
+}
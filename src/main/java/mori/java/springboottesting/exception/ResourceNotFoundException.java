@@ -1,12 +1,13 @@
 package mori.java.springboottesting.exception;
 
+//thrown on expected, client-caused paths, so no stack trace is captured; ApiExceptionHandler maps it to 404
 public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ResourceNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 
 }
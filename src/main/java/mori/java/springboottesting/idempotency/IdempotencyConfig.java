@@ -0,0 +1,27 @@
+package mori.java.springboottesting.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mori.java.springboottesting.repository.IdempotencyRecordRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties properties, IdempotencyRecordRepository repository,
+                                             ObjectMapper objectMapper) {
+        InMemoryIdempotencyStore memory = new InMemoryIdempotencyStore(properties.getTtl(), properties.getMaximumKeys());
+        if (properties.getStore() == IdempotencyProperties.Store.JDBC) {
+            return new JdbcIdempotencyStore(memory, repository, objectMapper, properties.getTtl());
+        }
+        return memory;
+    }
+
+    @Bean
+    public IdempotencyService idempotencyService(IdempotencyStore idempotencyStore, IdempotencyProperties properties) {
+        return new IdempotencyService(idempotencyStore, properties.getWaitTimeout().toMillis());
+    }
+}
@@ -0,0 +1,7 @@
+package mori.java.springboottesting.idempotency;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String key) {
+        super("A request with Idempotency-Key " + key + " is still in progress", null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package mori.java.springboottesting.idempotency;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency-Key " + key + " was already used for a different request", null, false, false);
+    }
+}
@@ -0,0 +1,27 @@
+package mori.java.springboottesting.idempotency;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.idempotency")
+public class IdempotencyProperties {
+
+    private Store store = Store.MEMORY;
+
+    //how long a response is replayed for its key, longer than any client retry window
+    private Duration ttl = Duration.ofHours(24);
+
+    //keys held in memory, the oldest are dropped first
+    private long maximumKeys = 100_000;
+
+    //how long a duplicate waits for the request that holds its key
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    public enum Store {
+        MEMORY,
+        //memory in front of the idempotency_keys table, survives restarts and is shared by replicas
+        JDBC
+    }
+}
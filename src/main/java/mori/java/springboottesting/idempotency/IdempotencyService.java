@@ -0,0 +1,103 @@
+package mori.java.springboottesting.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.tenant.TenantContext;
+
+// Runs a create at most once per Idempotency-Key. A retry after completion gets the stored response without
+// touching the database; a duplicate arriving while the first request still runs waits for its outcome instead
+// of racing it. Failed requests are not stored, so a retry after an error runs again.
+// The wait only spans this instance, duplicates routed to different replicas can both run.
+public class IdempotencyService {
+
+    private final IdempotencyStore store;
+
+    private final long waitTimeoutMillis;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyStore store, long waitTimeoutMillis) {
+        this.store = store;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    public IdempotentResult execute(String idempotencyKey, Employee request, Supplier<Employee> action) {
+        String key = TenantContext.key(idempotencyKey);
+        String fingerprint = fingerprint(request);
+        Optional<StoredResponse> stored = store.find(key);
+        if (stored.isPresent()) {
+            return replay(idempotencyKey, fingerprint, stored.get().getFingerprint(), stored.get().getBody());
+        }
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return replay(idempotencyKey, fingerprint, running.fingerprint, await(idempotencyKey, running));
+        }
+        try {
+            //the holder may have finished between the lookup and putIfAbsent
+            stored = store.find(key);
+            if (stored.isPresent()) {
+                mine.response.complete(stored.get().getBody());
+                return replay(idempotencyKey, fingerprint, stored.get().getFingerprint(), stored.get().getBody());
+            }
+            Employee body = action.get();
+            store.save(key, new StoredResponse(fingerprint, body));
+            mine.response.complete(body);
+            return new IdempotentResult(body, false);
+        } catch (RuntimeException e) {
+            mine.response.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Employee await(String idempotencyKey, InFlight running) {
+        try {
+            return running.response.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(idempotencyKey);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(idempotencyKey);
+        }
+    }
+
+    private static IdempotentResult replay(String idempotencyKey, String fingerprint, String storedFingerprint,
+                                           Employee body) {
+        if (!fingerprint.equals(storedFingerprint)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        return new IdempotentResult(body, true);
+    }
+
+    static String fingerprint(Employee request) {
+        String fields = request.getFirstName() + '\u0000' + request.getLastName() + '\u0000' + request.getEmail();
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(fields.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<Employee> response) {
+    }
+}
@@ -0,0 +1,11 @@
+package mori.java.springboottesting.idempotency;
+
+import java.util.Optional;
+
+// Completed responses by tenant-scoped idempotency key, forgotten after employees.idempotency.ttl
+public interface IdempotencyStore {
+
+    Optional<StoredResponse> find(String key);
+
+    void save(String key, StoredResponse response);
+}
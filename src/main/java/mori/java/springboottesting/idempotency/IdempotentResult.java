@@ -0,0 +1,15 @@
+package mori.java.springboottesting.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import mori.java.springboottesting.model.Employee;
+
+@Data
+@AllArgsConstructor
+public class IdempotentResult {
+
+    private Employee body;
+
+    //true when the body is the stored response of an earlier request with the same key
+    private boolean replayed;
+}
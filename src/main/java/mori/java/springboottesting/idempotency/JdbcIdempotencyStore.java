@@ -0,0 +1,80 @@
+package mori.java.springboottesting.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.model.IdempotencyRecord;
+import mori.java.springboottesting.repository.IdempotencyRecordRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Memory in front of the idempotency_keys table: retries to this instance never reach the database,
+// retries routed to another replica or arriving after a restart cost one primary-key lookup
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final InMemoryIdempotencyStore memory;
+
+    private final IdempotencyRecordRepository repository;
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration ttl;
+
+    public JdbcIdempotencyStore(InMemoryIdempotencyStore memory, IdempotencyRecordRepository repository,
+                                ObjectMapper objectMapper, Duration ttl) {
+        this.memory = memory;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        Optional<StoredResponse> cached = memory.find(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<StoredResponse> stored = repository.findById(key)
+                .filter(record -> record.getExpiresAt().isAfter(Instant.now()))
+                .map(this::toResponse);
+        stored.ifPresent(response -> memory.save(key, response));
+        return stored;
+    }
+
+    @Override
+    public void save(String key, StoredResponse response) {
+        memory.save(key, response);
+        try {
+            repository.save(IdempotencyRecord.builder()
+                    .key(key)
+                    .fingerprint(response.getFingerprint())
+                    .body(objectMapper.writeValueAsString(response.getBody()))
+                    .expiresAt(Instant.now().plus(ttl))
+                    .build());
+        } catch (JsonProcessingException | DataIntegrityViolationException e) {
+            //the write itself succeeded, losing the record only means a later retry is not deduplicated
+            log.warn("Could not persist idempotency key {}", key, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${employees.idempotency.purge-interval:PT15M}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private StoredResponse toResponse(IdempotencyRecord record) {
+        try {
+            return new StoredResponse(record.getFingerprint(), objectMapper.readValue(record.getBody(), Employee.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable idempotency record " + record.getKey(), e);
+        }
+    }
+}
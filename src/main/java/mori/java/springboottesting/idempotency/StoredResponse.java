@@ -0,0 +1,17 @@
+package mori.java.springboottesting.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mori.java.springboottesting.model.Employee;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredResponse {
+
+    //what the original request asked for, a different body under the same key is rejected
+    private String fingerprint;
+
+    private Employee body;
+}
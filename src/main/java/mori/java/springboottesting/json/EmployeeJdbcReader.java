@@ -0,0 +1,102 @@
+package mori.java.springboottesting.json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import javax.sql.DataSource;
+import mori.java.springboottesting.shard.ShardContext;
+import mori.java.springboottesting.shard.ShardRouter;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Read path of employees.read-path.mode=jdbc: no entities, no persistence context and no intermediate list.
+// A list is queried only when its body is written, and each row goes from the ResultSet straight into the JSON
+// generator while the driver fetches fetch-size rows at a time, so the response costs the same memory for any size.
+// The connection stays checked out until the last row has been sent. A failure halfway through cuts the response
+// short, the status line has already gone out.
+// With sharding a list streams every shard in turn and a by-id read goes to the shard of the id.
+public class EmployeeJdbcReader {
+
+    private static final String ACTIVE_SQL = "select id, first_name, last_name, email, archived from employees"
+            + " where tenant_id = ? and archived = false";
+
+    //same rows as EmployeeServiceImpl.getAllEmployees(true)
+    private static final String WITH_ARCHIVED_SQL = ACTIVE_SQL
+            + " union all select id, first_name, last_name, email, true from employees_archive where tenant_id = ?";
+
+    //same row as EmployeeServiceImpl.getEmployeeById, the archive is read in the same statement
+    private static final String BY_ID_SQL = "select id, first_name, last_name, email, archived from employees"
+            + " where tenant_id = ? and id = ?"
+            + " union all select id, first_name, last_name, email, true from employees_archive"
+            + " where tenant_id = ? and id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    //null without sharding
+    private final ShardRouter shardRouter;
+
+    public EmployeeJdbcReader(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              ReadPathProperties properties, ShardRouter shardRouter) {
+        //own template so the streaming fetch size does not leak into other JDBC users
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shardRouter = shardRouter;
+    }
+
+    public EmployeeJsonBody allEmployees(boolean includeArchived) {
+        String tenantId = TenantContext.getTenantId();
+        Object[] args = includeArchived ? new Object[]{tenantId, tenantId} : new Object[]{tenantId};
+        String sql = includeArchived ? WITH_ARCHIVED_SQL : ACTIVE_SQL;
+        return generator -> {
+            generator.writeStartArray();
+            try {
+                //a transaction, so PostgreSQL honours the fetch size instead of reading the whole result
+                for (int shard = 0; shard < shardCount(); shard++) {
+                    onShard(shard, status -> {
+                        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                            try {
+                                EmployeeJsonWriter.writeRow(rs, generator);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }, args);
+                        return null;
+                    });
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+        };
+    }
+
+    public Optional<EmployeeView> findById(long id) {
+        int shard = shardRouter == null ? ShardContext.HOME : shardRouter.shardFor(id);
+        List<EmployeeView> employees = onShard(shard, status -> jdbcTemplate.query(BY_ID_SQL,
+                (rs, rowNum) -> EmployeeView.of(rs), TenantContext.getTenantId(), id, TenantContext.getTenantId(), id));
+        return employees.stream().findFirst();
+    }
+
+    private int shardCount() {
+        return shardRouter == null ? 1 : shardRouter.shardCount();
+    }
+
+    //in a read-only transaction on the shard, which is ignored when sharding is off
+    private <T> T onShard(int shard, TransactionCallback<T> work) {
+        ShardContext.setShard(shard);
+        try {
+            return readOnlyTransaction.execute(work);
+        } finally {
+            ShardContext.clear();
+        }
+    }
+}
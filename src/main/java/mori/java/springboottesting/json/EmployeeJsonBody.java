@@ -0,0 +1,11 @@
+package mori.java.springboottesting.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+
+//a response body that writes itself, called by EmployeeJsonBodyHttpMessageConverter on the request thread
+@FunctionalInterface
+public interface EmployeeJsonBody {
+
+    void writeTo(JsonGenerator generator) throws IOException;
+}
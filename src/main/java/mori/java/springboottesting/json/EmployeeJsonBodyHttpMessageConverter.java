@@ -0,0 +1,46 @@
+package mori.java.springboottesting.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+// Writes an EmployeeJsonBody into the response stream through a generator of the application's JsonFactory,
+// without buffering the body. JSON only; the CBOR and Smile converters keep serving the entity read path.
+public class EmployeeJsonBodyHttpMessageConverter extends AbstractHttpMessageConverter<EmployeeJsonBody> {
+
+    private final JsonFactory jsonFactory;
+
+    public EmployeeJsonBodyHttpMessageConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EmployeeJsonBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected EmployeeJsonBody readInternal(Class<? extends EmployeeJsonBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Employee JSON bodies are written only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(EmployeeJsonBody body, HttpOutputMessage outputMessage) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        //a body that fails halfway must stay broken JSON rather than be closed into a shorter valid array
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        try {
+            body.writeTo(generator);
+        } finally {
+            generator.close();
+        }
+    }
+}
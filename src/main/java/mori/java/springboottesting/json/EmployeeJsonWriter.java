@@ -0,0 +1,48 @@
+package mori.java.springboottesting.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Writes one employee row as the JSON object Jackson produces for the Employee entity, field by field.
+// Field names are SerializedStrings: their quoted UTF-8 bytes are computed once and copied into the output buffer.
+final class EmployeeJsonWriter {
+
+    private static final SerializableString ID = new SerializedString("id");
+
+    private static final SerializableString FIRST_NAME = new SerializedString("firstName");
+
+    private static final SerializableString LAST_NAME = new SerializedString("lastName");
+
+    private static final SerializableString EMAIL = new SerializedString("email");
+
+    private static final SerializableString ARCHIVED = new SerializedString("archived");
+
+    private EmployeeJsonWriter() {
+    }
+
+    //columns in EmployeeJdbcReader's select order
+    static void writeRow(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        generator.writeNumber(rs.getLong(1));
+        writeString(generator, FIRST_NAME, rs.getString(2));
+        writeString(generator, LAST_NAME, rs.getString(3));
+        writeString(generator, EMAIL, rs.getString(4));
+        generator.writeFieldName(ARCHIVED);
+        generator.writeBoolean(rs.getBoolean(5));
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package mori.java.springboottesting.json;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+//immutable read model of an employee, the same JSON as the Employee entity
+public record EmployeeView(long id, String firstName, String lastName, String email, boolean archived) {
+
+    //columns in EmployeeJdbcReader's select order
+    static EmployeeView of(ResultSet rs) throws SQLException {
+        return new EmployeeView(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getBoolean(5));
+    }
+}
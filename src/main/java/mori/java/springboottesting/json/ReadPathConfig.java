@@ -0,0 +1,30 @@
+package mori.java.springboottesting.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import javax.sql.DataSource;
+import mori.java.springboottesting.shard.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// employees.read-path.mode=jdbc: EmployeeController answers the plain list and by-id reads from EmployeeJdbcReader
+@Configuration
+@ConditionalOnProperty(name = "employees.read-path.mode", havingValue = "jdbc")
+@EnableConfigurationProperties(ReadPathProperties.class)
+public class ReadPathConfig {
+
+    @Bean
+    public EmployeeJdbcReader employeeJdbcReader(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                                 ReadPathProperties properties, ObjectProvider<ShardRouter> shardRouter) {
+        return new EmployeeJdbcReader(dataSource, transactionManager, properties, shardRouter.getIfAvailable());
+    }
+
+    //Boot puts HttpMessageConverter beans ahead of its defaults
+    @Bean
+    public EmployeeJsonBodyHttpMessageConverter employeeJsonBodyHttpMessageConverter(ObjectMapper objectMapper) {
+        return new EmployeeJsonBodyHttpMessageConverter(objectMapper.getFactory());
+    }
+}
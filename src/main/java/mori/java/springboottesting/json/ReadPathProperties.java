@@ -0,0 +1,22 @@
+package mori.java.springboottesting.json;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.read-path")
+public class ReadPathProperties {
+
+    public enum Mode {
+        //JPA entities through EmployeeServiceImpl, serialized by Jackson
+        ENTITY,
+        //rows from JDBC straight into the response, see EmployeeJdbcReader
+        JDBC
+    }
+
+    private Mode mode = Mode.ENTITY;
+
+    //rows fetched per round trip while a list is streamed
+    private int fetchSize = 500;
+
+}
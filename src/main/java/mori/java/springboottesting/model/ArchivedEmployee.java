@@ -0,0 +1,45 @@
+package mori.java.springboottesting.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "employees_archive")
+public class ArchivedEmployee {
+    @Id
+    private long id;
+    @Column(name = "first_name", nullable = false)
+    private String firstName;
+    @Column(name = "last_name", nullable = false)
+    private String lastName;
+    @Column(nullable = false)
+    private String email;
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, columnDefinition = "varchar(63) default 'default'")
+    private String tenantId;
+
+    public Employee toEmployee() {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .archived(true)
+                .tenantId(tenantId)
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package mori.java.springboottesting.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One change to an employee, appended by the audit writer and never updated
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_audit", indexes = @Index(name = "idx_employee_audit_employee", columnList = "tenant_id, employee_id, id"))
+public class AuditEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+    @Column(name = "change_type", nullable = false)
+    private String changeType;
+    @Column(nullable = false)
+    private String actor;
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+    //employee JSON, null for creates
+    @JsonRawValue
+    @Column(name = "before_state", columnDefinition = "text")
+    private String beforeState;
+    //employee JSON, null for deletes
+    @JsonRawValue
+    @Column(name = "after_state", columnDefinition = "text")
+    private String afterState;
+}
@@ -0,0 +1,40 @@
+package mori.java.springboottesting.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+// A completed chunk of an EmployeeBatchService job, written in the chunk's own transaction so it commits together with its changes
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_batch_checkpoints")
+public class BatchCheckpoint {
+    //tenant:job:rangeStart
+    @Id
+    private String id;
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+    @Column(name = "range_start", nullable = false)
+    private long rangeStart;
+    @Column(name = "range_end", nullable = false)
+    private long rangeEnd;
+    @Column(nullable = false)
+    private long processed;
+    @Column(nullable = false)
+    private long modified;
+    @Column(name = "completed_at", nullable = false)
+    private Instant completedAt;
+    @TenantId
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+}
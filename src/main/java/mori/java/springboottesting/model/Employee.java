@@ -1,22 +1,47 @@
 package mori.java.springboottesting.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import java.util.Locale;
+import mori.java.springboottesting.shard.SnowflakeIdGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.TenantId;
+import org.hibernate.proxy.HibernateProxy;
 
-
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
+// Written out instead of generated by Lombok: equals and hashCode follow the entity identity rather than every field,
+// so an instance keeps its hash while it is changed and saved, and two loads of one row are equal.
+// The build enhances this class (hibernate-enhance-maven-plugin): setters record changed attributes as they happen,
+// so a flush checks a dirty flag instead of comparing a loaded-state snapshot, and the lazy columns below are not
+// read from the result set until something asks for them.
 @Entity
-@Table(name = "employees")
+//every filter and sort accepted by EmployeeQueryAllowList is served by one of these in index order,
+//id is the last column so the id tie-breaker of a sort needs no extra sort step
+@Table(name = "employees", indexes = {
+        @Index(name = "idx_employees_tenant_id", columnList = "tenant_id, id"),
+        @Index(name = "idx_employees_tenant_email_id", columnList = "tenant_id, email_normalized, id"),
+        @Index(name = "idx_employees_tenant_last_name_id", columnList = "tenant_id, last_name, first_name, id"),
+        @Index(name = "idx_employees_tenant_first_name_id", columnList = "tenant_id, first_name, last_name, id"),
+        @Index(name = "idx_employees_tenant_domain_id", columnList = "tenant_id, email_domain, email_normalized, id")
+}, uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_UNIQUE_CONSTRAINT,
+        columnNames = {"tenant_id", "email_normalized"}))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
 public class Employee {
+    public static final String CACHE_REGION = "employees";
+
+    //query-result region of the name lookups, see application-l2cache.properties
+    public static final String NAME_QUERY_CACHE_REGION = "employee-name-queries";
+
+    //an email is unique per tenant whichever replica, job or import writes it, see ApiExceptionHandler
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_tenant_email";
+
+    //an identity column; with sharding a Snowflake id assigned in memory when persisted, see SnowflakeIdGenerator
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "employee-id")
+    @GenericGenerator(name = "employee-id", type = SnowflakeIdGenerator.class)
     private long id;
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -24,5 +49,211 @@ public class Employee {
     private String lastName;
     @Column(nullable = false)
     private String email;
+    //lookup key for findByEmail and the email filter, kept in sync with email on every insert and update
+    //nullable only until EmailNormalizationBackfill has filled rows written before the columns existed
+    //lazy: only queries filter and sort on these, loaded entities never need them
+    @JsonIgnore
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "email_normalized")
+    private String emailNormalized;
+    @JsonIgnore
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "email_domain")
+    private String emailDomain;
+    //archived rows are moved to employees_archive by the archive job
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean archived;
+    //set by Hibernate from TenantContext on insert and added to every entity query
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, columnDefinition = "varchar(63) default 'default'")
+    private String tenantId;
+
+    public Employee() {
+    }
+
+    private Employee(Builder builder) {
+        this.id = builder.id;
+        this.firstName = builder.firstName;
+        this.lastName = builder.lastName;
+        this.email = builder.email;
+        this.archived = builder.archived;
+        this.tenantId = builder.tenantId;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    //a detached copy of the mapped state; the derived email columns are left out and recomputed when persisted,
+    //so copying a loaded employee does not fetch them
+    public Builder toBuilder() {
+        return new Builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .archived(archived)
+                .tenantId(tenantId);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeEmail() {
+        //writing a lazy attribute marks it loaded, it is not fetched first
+        emailNormalized = normalizeEmail(email);
+        emailDomain = emailDomain(emailNormalized);
+    }
+
+    //must match lower(trim(email)) in EmployeeRepository.backfillEmailColumns
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    //everything after the first @ of a normalized email, the whole value when there is none
+    public static String emailDomain(String emailNormalized) {
+        return emailNormalized == null ? null : emailNormalized.substring(emailNormalized.indexOf('@') + 1);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getEmailNormalized() {
+        return emailNormalized;
+    }
+
+    public String getEmailDomain() {
+        return emailDomain;
+    }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+
+    //ids are assigned on insert (when persisted with sharding), so a new employee (id 0) is only equal to itself
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Employee other) || entityClass(this) != entityClass(other)) {
+            return false;
+        }
+        return id != 0 && id == other.getId();
+    }
+
+    //constant per class: without sharding the database assigns the id on insert, and an id-based hash would move a
+    //saved employee to another bucket. The price is one bucket for every employee, so hashed collections of
+    //employees are linear; key them by getId() instead
+    @Override
+    public int hashCode() {
+        return entityClass(this).hashCode();
+    }
+
+    //mapped state without the lazy columns, so logging an employee never triggers a fetch
+    @Override
+    public String toString() {
+        return "Employee(id=" + id + ", firstName=" + firstName + ", lastName=" + lastName + ", email=" + email
+                + ", archived=" + archived + ", tenantId=" + tenantId + ")";
+    }
+
+    //the entity class behind a proxy, without initializing it
+    private static Class<?> entityClass(Object entity) {
+        return entity instanceof HibernateProxy proxy
+                ? proxy.getHibernateLazyInitializer().getPersistentClass()
+                : entity.getClass();
+    }
+
+    public static final class Builder {
+
+        private long id;
+
+        private String firstName;
+
+        private String lastName;
+
+        private String email;
+
+        private boolean archived;
+
+        private String tenantId;
+
+        private Builder() {
+        }
+
+        public Builder id(long id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder firstName(String firstName) {
+            this.firstName = firstName;
+            return this;
+        }
+
+        public Builder lastName(String lastName) {
+            this.lastName = lastName;
+            return this;
+        }
+
+        public Builder email(String email) {
+            this.email = email;
+            return this;
+        }
+
+        public Builder archived(boolean archived) {
+            this.archived = archived;
+            return this;
+        }
+
+        public Builder tenantId(String tenantId) {
+            this.tenantId = tenantId;
+            return this;
+        }
 
+        public Employee build() {
+            return new Employee(this);
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package mori.java.springboottesting.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Which employee owns an email across all shards, kept on the home shard by EmployeeEmailIndex.
+// Mapped so ddl-auto creates the table, the application only reads and writes it through JDBC.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "employee_email_index", indexes = @Index(name = "idx_employee_email_index_employee", columnList = "employee_id"))
+public class EmployeeEmailIndexEntry {
+    //TenantContext.key(normalized email), the same keys as EmployeeRepository.streamAllTenantEmailKeys
+    @Id
+    @Column(name = "email_key")
+    private String emailKey;
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+}
@@ -0,0 +1,33 @@
+package mori.java.springboottesting.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// An employee read often by id on some instance recently, written by HotKeyStore and read by the next warm-up.
+// Mapped so ddl-auto creates the table, the application only reads and writes it through JDBC.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "employee_hot_keys", indexes = @Index(name = "idx_employee_hot_keys_recorded", columnList = "recorded_at"))
+public class EmployeeHotKey {
+    //tenant:employeeId
+    @Id
+    private String id;
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+    //reads in the last persist interval of the instance that wrote the row
+    @Column(nullable = false)
+    private long hits;
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+}
@@ -0,0 +1,33 @@
+package mori.java.springboottesting.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A completed POST /api/employees, replayed for retries carrying the same Idempotency-Key
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+    //tenant:Idempotency-Key
+    @Id
+    @Column(name = "idempotency_key", length = 320)
+    private String key;
+    @Column(nullable = false)
+    private String fingerprint;
+    //response body as JSON
+    @Column(nullable = false, columnDefinition = "text")
+    private String body;
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,127 @@
+package mori.java.springboottesting.pool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+// Times how long every connection stays checked out, from getConnection to close on the DataSource proxy set up by
+// ConnectionPoolConfig, attributed to the EmployeeServiceImpl method running on the thread that took it ("none" for
+// jobs and other callers), and reports connections still out past employees.pool.long-held-threshold.
+// With sharding the DataSource is lazy and the hold also covers the time before the first statement.
+// Leaked connections are reported by Hikari itself with the acquiring stack (leak-detection-threshold).
+@Slf4j
+@Aspect
+@Component
+public class ConnectionHoldTracker {
+
+    private static final ThreadLocal<String> METHOD = new ThreadLocal<>();
+
+    private final Map<Connection, Hold> inFlight = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final long longHeldNanos;
+
+    public ConnectionHoldTracker(MeterRegistry meterRegistry, ConnectionPoolProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.longHeldNanos = properties.getLongHeldThreshold().toNanos();
+    }
+
+    @Around("execution(public * mori.java.springboottesting.service.impl.EmployeeServiceImpl.*(..))")
+    public Object track(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (METHOD.get() != null) {
+            return joinPoint.proceed();
+        }
+        METHOD.set(joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            METHOD.remove();
+        }
+    }
+
+    @Scheduled(fixedRate = 5000)
+    public void reportLongHeld() {
+        long now = System.nanoTime();
+        inFlight.values().forEach(hold -> {
+            long heldNanos = now - hold.startNanos();
+            if (heldNanos > longHeldNanos) {
+                log.warn("Connection held for {} ms by {} on thread {}",
+                        TimeUnit.NANOSECONDS.toMillis(heldNanos), hold.method(), hold.thread());
+            }
+        });
+    }
+
+    //every interface of the pool, so unwrap, Closeable and the Hikari MXBean stay visible
+    DataSource wrap(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(ConnectionHoldTracker.class.getClassLoader(),
+                ClassUtils.getAllInterfacesForClass(dataSource.getClass(), ConnectionHoldTracker.class.getClassLoader()),
+                handler(dataSource, (proxy, method, result) -> method.getName().equals("getConnection")
+                        ? checkedOut((Connection) result)
+                        : result));
+    }
+
+    private Connection checkedOut(Connection connection) {
+        String method = METHOD.get();
+        Hold hold = new Hold(method == null ? "none" : method, Thread.currentThread().getName(), System.nanoTime());
+        Connection tracked = (Connection) Proxy.newProxyInstance(ConnectionHoldTracker.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler(connection, (proxy, called, result) -> {
+                    //a second close is a no-op on the pool and is not counted again
+                    if (called.getName().equals("close") && inFlight.remove(proxy) != null) {
+                        released(hold);
+                    }
+                    return result;
+                }));
+        inFlight.put(tracked, hold);
+        return tracked;
+    }
+
+    private void released(Hold hold) {
+        Timer.builder("employees.service.connection.hold")
+                .tag("method", hold.method())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - hold.startNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    //calls the target, then lets after replace the result; equals and hashCode stay on the proxy's identity
+    private static InvocationHandler handler(Object target, AfterCall after) {
+        return (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return after.apply(proxy, method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface AfterCall {
+        Object apply(Object proxy, Method method, Object result) throws Throwable;
+    }
+
+    private record Hold(String method, String thread, long startNanos) {
+    }
+}
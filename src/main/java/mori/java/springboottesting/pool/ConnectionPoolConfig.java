@@ -0,0 +1,50 @@
+package mori.java.springboottesting.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ConnectionPoolProperties.class)
+public class ConnectionPoolConfig {
+
+    //static, and the tracker is looked up only when the DataSource is created, so nothing is initialized early
+    @Bean
+    public static BeanPostProcessor connectionHoldPostProcessor(ObjectProvider<ConnectionHoldTracker> tracker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? tracker.getObject().wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    //Hibernate skips setAutoCommit(false) at transaction begin only when the pool hands out connections with it
+    //already off (spring.datasource.hikari.auto-commit=false); any other DataSource keeps the check, so its
+    //transactions still commit and roll back as a unit
+    @Bean
+    public HibernatePropertiesCustomizer autoCommitCustomizer(DataSource dataSource) {
+        return hibernateProperties -> {
+            if (poolDisablesAutoCommit(dataSource)) {
+                hibernateProperties.put(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, "true");
+            }
+        };
+    }
+
+    //through the SQL monitor and shard routing proxies, both unwrap to the (home) pool
+    static boolean poolDisablesAutoCommit(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    && !dataSource.unwrap(HikariDataSource.class).isAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
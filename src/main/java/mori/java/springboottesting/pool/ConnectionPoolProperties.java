@@ -0,0 +1,25 @@
+package mori.java.springboottesting.pool;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.pool")
+public class ConnectionPoolProperties {
+
+    private boolean autotune = false;
+
+    private int minSize = 2;
+
+    private int maxSize = Runtime.getRuntime().availableProcessors() * 4;
+
+    //spare capacity on top of the observed concurrency
+    private double headroom = 1.25;
+
+    private Duration tuneInterval = Duration.ofSeconds(30);
+
+    //connections checked out longer than this are reported as long-held
+    private Duration longHeldThreshold = Duration.ofSeconds(5);
+
+}
@@ -0,0 +1,36 @@
+package mori.java.springboottesting.pool;
+
+// Computes the pool size from the concurrency observed during the last tuning window.
+// Concurrency is the larger of the sampled peak (busy + waiting threads) and Little's law
+// (connection checkouts per second x mean hold time). Grows at once, shrinks one step at a time.
+public class ConnectionPoolSizer {
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final double headroom;
+
+    public ConnectionPoolSizer(int minSize, int maxSize, double headroom) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid pool bounds: min=" + minSize + ", max=" + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.headroom = headroom;
+    }
+
+    public int nextSize(int currentSize, int peakConcurrency, double checkoutsPerSecond, double meanHoldSeconds) {
+        double littlesLaw = checkoutsPerSecond * meanHoldSeconds;
+        double concurrency = Math.max(peakConcurrency, littlesLaw);
+        int target = clamp((int) Math.ceil(concurrency * headroom));
+        if (target >= currentSize) {
+            return target;
+        }
+        return clamp(currentSize - Math.max(1, (currentSize - target) / 4));
+    }
+
+    private int clamp(int size) {
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+}
@@ -0,0 +1,144 @@
+package mori.java.springboottesting.pool;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.shard.ShardDataSources;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Samples every Hikari pool each second and resizes each one every tune interval within
+// employees.pool.min-size/max-size; with sharding that is one pool per shard, tuned on its own load
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "employees.pool.autotune", havingValue = "true")
+public class ConnectionPoolTuner {
+
+    private final List<TunedPool> pools;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConnectionPoolSizer sizer;
+
+    public ConnectionPoolTuner(DataSource dataSource, ObjectProvider<ShardDataSources> shards,
+                               MeterRegistry meterRegistry, ConnectionPoolProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.sizer = new ConnectionPoolSizer(properties.getMinSize(), properties.getMaxSize(), properties.getHeadroom());
+        this.pools = hikariPools(dataSource, shards.getIfAvailable()).stream()
+                .map(pool -> new TunedPool(pool, meterRegistry))
+                .toList();
+        pools.forEach(pool -> pool.config().setMinimumIdle(properties.getMinSize()));
+        if (pools.isEmpty()) {
+            log.warn("employees.pool.autotune is on but the DataSource is not backed by a Hikari pool, nothing to tune");
+        }
+    }
+
+    //the shard pools sit behind the routing DataSource and are not beans; otherwise the one pool behind the proxies
+    public static List<HikariDataSource> hikariPools(DataSource dataSource, ShardDataSources shards) {
+        if (shards != null) {
+            return shards.pools();
+        }
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? List.of(dataSource.unwrap(HikariDataSource.class))
+                    : List.of();
+        } catch (SQLException e) {
+            return List.of();
+        }
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void sample() {
+        pools.forEach(TunedPool::sample);
+    }
+
+    @Scheduled(fixedRateString = "${employees.pool.tune-interval:PT30S}", initialDelayString = "${employees.pool.tune-interval:PT30S}")
+    public void tune() {
+        pools.forEach(this::tune);
+    }
+
+    private void tune(TunedPool pool) {
+        Timer usage = meterRegistry.find("hikaricp.connections.usage").tag("pool", pool.name()).timer();
+        long checkouts = usage == null ? 0 : usage.count();
+        double heldSeconds = usage == null ? 0 : usage.totalTime(TimeUnit.SECONDS);
+        long now = System.nanoTime();
+
+        long windowCheckouts = checkouts - pool.lastCheckouts;
+        double windowSeconds = (now - pool.lastTuneNanos) / 1e9;
+        double checkoutsPerSecond = windowCheckouts / windowSeconds;
+        double meanHoldSeconds = windowCheckouts == 0 ? 0 : (heldSeconds - pool.lastHeldSeconds) / windowCheckouts;
+        pool.lastCheckouts = checkouts;
+        pool.lastHeldSeconds = heldSeconds;
+        pool.lastTuneNanos = now;
+
+        HikariConfigMXBean config = pool.config();
+        int currentSize = config.getMaximumPoolSize();
+        int nextSize = sizer.nextSize(currentSize, pool.peakConcurrency.getAndSet(0), checkoutsPerSecond, meanHoldSeconds);
+        if (nextSize != currentSize) {
+            log.info("Resizing connection pool {} {} -> {} ({} checkouts/s, mean hold {} ms)",
+                    pool.name(), currentSize, nextSize, String.format("%.1f", checkoutsPerSecond),
+                    String.format("%.2f", meanHoldSeconds * 1000));
+            config.setMaximumPoolSize(nextSize);
+        }
+    }
+
+    private static final class TunedPool {
+
+        private final HikariDataSource dataSource;
+
+        private final MeterRegistry meterRegistry;
+
+        private DistributionSummary saturation;
+
+        private final AtomicInteger peakConcurrency = new AtomicInteger();
+
+        private long lastCheckouts;
+
+        private double lastHeldSeconds;
+
+        private long lastTuneNanos = System.nanoTime();
+
+        private TunedPool(HikariDataSource dataSource, MeterRegistry meterRegistry) {
+            this.dataSource = dataSource;
+            this.meterRegistry = meterRegistry;
+        }
+
+        //Hikari names an unnamed pool when it starts
+        private String name() {
+            return dataSource.getPoolName();
+        }
+
+        private HikariConfigMXBean config() {
+            return dataSource.getHikariConfigMXBean();
+        }
+
+        //null until the pool has started, Hikari starts it on the first getConnection
+        private void sample() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool == null) {
+                return;
+            }
+            if (saturation == null) {
+                saturation = DistributionSummary.builder("employees.pool.saturation")
+                        .description("(active + waiting) / maximum pool size, sampled every second")
+                        .tag("pool", name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+            }
+            int busy = pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+            peakConcurrency.accumulateAndGet(busy, Math::max);
+            saturation.record((double) busy / config().getMaximumPoolSize());
+        }
+    }
+}
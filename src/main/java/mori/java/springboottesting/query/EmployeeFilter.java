@@ -0,0 +1,45 @@
+package mori.java.springboottesting.query;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Exact-match filters of GET /api/employees, bound from the firstName, lastName and emailDomain query parameters
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeFilter {
+
+    public static final String FIRST_NAME = "firstName";
+
+    public static final String LAST_NAME = "lastName";
+
+    public static final String EMAIL_DOMAIN = "emailDomain";
+
+    private String firstName;
+
+    private String lastName;
+
+    private String emailDomain;
+
+    public boolean isEmpty() {
+        return names().isEmpty();
+    }
+
+    //names of the filters that are set, the key of EmployeeQueryAllowList
+    public Set<String> names() {
+        Set<String> names = new LinkedHashSet<>();
+        if (firstName != null) {
+            names.add(FIRST_NAME);
+        }
+        if (lastName != null) {
+            names.add(LAST_NAME);
+        }
+        if (emailDomain != null) {
+            names.add(EMAIL_DOMAIN);
+        }
+        return names;
+    }
+}
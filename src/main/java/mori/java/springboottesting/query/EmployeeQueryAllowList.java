@@ -0,0 +1,114 @@
+package mori.java.springboottesting.query;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+// The filter and sort combinations GET /api/employees accepts. Each one is answered by a range scan of one of the
+// Employee indexes in index order, so a page costs a seek plus page-size rows whatever the table size; anything
+// else would need a full scan or a sort and is rejected. A sort is expanded to all columns of its index, which
+// also makes the order total and pages stable. EmployeeQueryPlanTests checks every entry against the real planner.
+// The X-Total-Count of a page is a count over the same index range, so it grows with the tenant's matching rows.
+public final class EmployeeQueryAllowList {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    //rows up to the end of the last reachable page: an offset is read and skipped, and with sharding every shard
+    //returns all rows up to the end of the page for the merge; deeper pages need a narrower filter
+    public static final int MAX_RESULT_WINDOW = 20 * MAX_PAGE_SIZE;
+
+    //idx_employees_tenant_id, idx_employees_tenant_last_name_id and friends, see Employee
+    private static final List<String> BY_ID = List.of("id");
+
+    private static final List<String> BY_LAST_NAME = List.of("lastName", "firstName", "id");
+
+    private static final List<String> BY_FIRST_NAME = List.of("firstName", "lastName", "id");
+
+    private static final List<String> BY_EMAIL = List.of("emailNormalized", "id");
+
+    private static final List<String> BY_EMAIL_DOMAIN = List.of("emailDomain", "emailNormalized", "id");
+
+    //filters that are set -> sort parameter -> order by; the first sort of an entry is its default
+    private static final Map<Set<String>, Map<String, List<String>>> ALLOWED = Map.of(
+            Set.of(), orderBys(
+                    "id", BY_ID,
+                    "lastName", BY_LAST_NAME,
+                    "firstName", BY_FIRST_NAME,
+                    "email", BY_EMAIL,
+                    "emailDomain", BY_EMAIL_DOMAIN),
+            Set.of(EmployeeFilter.LAST_NAME), orderBys(
+                    "firstName", BY_LAST_NAME,
+                    "lastName", BY_LAST_NAME),
+            Set.of(EmployeeFilter.FIRST_NAME), orderBys(
+                    "lastName", BY_FIRST_NAME,
+                    "firstName", BY_FIRST_NAME),
+            Set.of(EmployeeFilter.LAST_NAME, EmployeeFilter.FIRST_NAME), orderBys(
+                    "id", BY_LAST_NAME,
+                    "lastName", BY_LAST_NAME,
+                    "firstName", BY_LAST_NAME),
+            Set.of(EmployeeFilter.EMAIL_DOMAIN), orderBys(
+                    "email", BY_EMAIL_DOMAIN,
+                    "emailDomain", BY_EMAIL_DOMAIN)
+    );
+
+    private EmployeeQueryAllowList() {
+    }
+
+    // sort is "property" or "property,asc|desc", page is zero-based
+    public static PageRequest pageRequest(EmployeeFilter filter, String sort, Integer page, Integer size) {
+        Map<String, List<String>> sorts = ALLOWED.get(filter.names());
+        if (sorts == null) {
+            throw new InvalidEmployeeQueryException("Filtering by " + filter.names() + " is not supported,"
+                    + " supported combinations are " + ALLOWED.keySet());
+        }
+        String property = sorts.keySet().iterator().next();
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.split(",", 2);
+            property = parts[0].trim();
+            if (parts.length == 2) {
+                direction = Sort.Direction.fromOptionalString(parts[1].trim().toUpperCase(Locale.ROOT))
+                        .orElseThrow(() -> new InvalidEmployeeQueryException("Sort direction must be asc or desc"));
+            }
+        }
+        List<String> orderBy = sorts.get(property);
+        if (orderBy == null) {
+            throw new InvalidEmployeeQueryException("Sorting by " + property + " is not supported when filtering by "
+                    + filter.names() + ", supported sorts are " + sorts.keySet());
+        }
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageNumber < 0 || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidEmployeeQueryException("page must be at least 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((long) (pageNumber + 1) * pageSize > MAX_RESULT_WINDOW) {
+            throw new InvalidEmployeeQueryException("Pages end at row " + MAX_RESULT_WINDOW
+                    + ", narrow the filter to reach later employees");
+        }
+        return PageRequest.of(pageNumber, pageSize, Sort.by(direction, orderBy.toArray(String[]::new)));
+    }
+
+    public static Set<Set<String>> filterCombinations() {
+        return ALLOWED.keySet();
+    }
+
+    public static Set<String> sorts(Set<String> filters) {
+        return ALLOWED.getOrDefault(filters, Map.of()).keySet();
+    }
+
+    private static Map<String, List<String>> orderBys(Object... sortAndOrderBy) {
+        Map<String, List<String>> sorts = new LinkedHashMap<>();
+        for (int i = 0; i < sortAndOrderBy.length; i += 2) {
+            @SuppressWarnings("unchecked")
+            List<String> orderBy = (List<String>) sortAndOrderBy[i + 1];
+            sorts.put((String) sortAndOrderBy[i], orderBy);
+        }
+        return sorts;
+    }
+}
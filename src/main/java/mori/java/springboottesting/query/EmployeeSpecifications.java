@@ -0,0 +1,45 @@
+package mori.java.springboottesting.query;
+
+import mori.java.springboottesting.model.Employee;
+import org.springframework.data.jpa.domain.Specification;
+
+// Database-side predicates of the list endpoint. The tenant predicate is added by @TenantId, so together with
+// these every accepted query starts with the tenant_id column of one of the Employee indexes.
+public final class EmployeeSpecifications {
+
+    private EmployeeSpecifications() {
+    }
+
+    public static Specification<Employee> matching(EmployeeFilter filter) {
+        Specification<Employee> specification = Specification.where(notArchived());
+        if (filter.getLastName() != null) {
+            specification = specification.and(lastName(filter.getLastName()));
+        }
+        if (filter.getFirstName() != null) {
+            specification = specification.and(firstName(filter.getFirstName()));
+        }
+        if (filter.getEmailDomain() != null) {
+            specification = specification.and(emailDomain(filter.getEmailDomain()));
+        }
+        return specification;
+    }
+
+    public static Specification<Employee> notArchived() {
+        return (root, query, builder) -> builder.isFalse(root.get("archived"));
+    }
+
+    public static Specification<Employee> firstName(String firstName) {
+        return (root, query, builder) -> builder.equal(root.get("firstName"), firstName);
+    }
+
+    public static Specification<Employee> lastName(String lastName) {
+        return (root, query, builder) -> builder.equal(root.get("lastName"), lastName);
+    }
+
+    //compared in normalized form, so "@Java.COM" and "java.com" match the same rows
+    public static Specification<Employee> emailDomain(String emailDomain) {
+        String domain = Employee.normalizeEmail(emailDomain);
+        String normalized = domain.startsWith("@") ? domain.substring(1) : domain;
+        return (root, query, builder) -> builder.equal(root.get("emailDomain"), normalized);
+    }
+}
@@ -0,0 +1,8 @@
+package mori.java.springboottesting.query;
+
+//a filter, sort or page the list endpoint does not serve from an index; ApiExceptionHandler maps it to 400
+public class InvalidEmployeeQueryException extends RuntimeException {
+    public InvalidEmployeeQueryException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,15 @@
+package mori.java.springboottesting.repository;
+
+import java.util.List;
+import java.util.Optional;
+import mori.java.springboottesting.model.AuditEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AuditEntryRepository extends JpaRepository<AuditEntry, Long> {
+
+    //newest first
+    List<AuditEntry> findByTenantIdAndEmployeeIdOrderByIdDesc(String tenantId, long employeeId, Pageable pageable);
+
+    Optional<AuditEntry> findFirstByTenantIdAndEmployeeIdOrderByIdDesc(String tenantId, long employeeId);
+}
@@ -0,0 +1,12 @@
+package mori.java.springboottesting.repository;
+
+import java.util.List;
+import mori.java.springboottesting.model.BatchCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+
+    List<BatchCheckpoint> findByJobName(String jobName);
+
+    void deleteByJobName(String jobName);
+}
@@ -0,0 +1,32 @@
+package mori.java.springboottesting.repository;
+
+import jakarta.persistence.QueryHint;
+import mori.java.springboottesting.model.ArchivedEmployee;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface EmployeeArchiveRepository extends JpaRepository<ArchivedEmployee, Long> {
+
+    //moves one batch of archived rows from the hot table to the cold table in a single statement (PostgreSQL)
+    //native, so it is not scoped by @TenantId and moves the rows of every tenant
+    //the query spaces limit second-level cache invalidation to the two tables touched instead of every region
+    @Transactional
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees_archive")
+    })
+    @Query(value = "with moved as ("
+            + " delete from employees where id in"
+            + " (select id from employees where archived limit :batchSize for update skip locked)"
+            + " returning id, first_name, last_name, email, tenant_id)"
+            + " insert into employees_archive (id, first_name, last_name, email, tenant_id, archived_at)"
+            + " select id, first_name, last_name, email, tenant_id, now() from moved", nativeQuery = true)
+    int moveArchivedBatch(@Param("batchSize") int batchSize);
+
+}
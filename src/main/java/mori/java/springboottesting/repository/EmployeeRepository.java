@@ -1,29 +1,105 @@
 package mori.java.springboottesting.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import mori.java.springboottesting.model.Employee;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee> {
 
-    Optional<Employee> findByEmail(String email);
+    //case-insensitive: one index seek on (tenant_id, email_normalized) whatever the case of the input
+    default Optional<Employee> findByEmail(String email) {
+        return findByEmailNormalized(Employee.normalizeEmail(email));
+    }
+
+    Optional<Employee> findByEmailNormalized(String emailNormalized);
+
+    List<Employee> findByArchivedFalse();
+
+    //must be consumed inside a transaction
+    //native so it spans every tenant, keys are TenantContext.key(email)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    //rows not backfilled yet are normalized the same way email_normalized would be
+    @Query(value = "select concat(e.tenant_id, ':', coalesce(e.email_normalized, lower(trim(e.email))))"
+            + " from employees e", nativeQuery = true)
+    Stream<String> streamAllTenantEmailKeys();
+
+    //the tenant predicate is spelled out rather than relying on @TenantId being applied to bulk statements
+    @Modifying
+    @Query("delete from Employee e where e.id = :id"
+            + " and e.tenantId = :#{T(mori.java.springboottesting.tenant.TenantContext).getTenantId()}")
+    int deleteEmployeeById(@Param("id") long id);
+
+    //fills email_normalized and email_domain for rows written before the columns existed, one batch per call
+    //native, so it is not scoped by @TenantId and covers every tenant
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees"))
+    @Query(value = "update employees set email_normalized = lower(trim(email)),"
+            + " email_domain = substring(lower(trim(email)) from position('@' in lower(trim(email))) + 1)"
+            + " where id in (select id from employees where email_domain is null order by id limit :batchSize)",
+            nativeQuery = true)
+    int backfillEmailColumns(@Param("batchSize") int batchSize);
+
+    //the id of every chunkSize-th employee of the current tenant in id order, where the chunks of a batch job start
+    //native, so the tenant predicate is spelled out
+    @Query(value = "select id from (select id, row_number() over (order by id) as rn from employees"
+            + " where tenant_id = :#{T(mori.java.springboottesting.tenant.TenantContext).getTenantId()}) numbered"
+            + " where mod(rn - 1, :chunkSize) = 0 order by id", nativeQuery = true)
+    List<Long> findChunkStartIds(@Param("chunkSize") int chunkSize);
+
+    //one chunk of a batch job, must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select e from Employee e where e.id >= :from and e.id < :to order by e.id")
+    Stream<Employee> streamByIdRange(@Param("from") long from, @Param("to") long to);
 
     //define custom query using JPQL with index params
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.NAME_QUERY_CACHE_REGION)
+    })
     @Query("select e from Employee e where e.firstName =?1 and e.lastName=?2")
     Employee findByJPQL(String firstName, String lastName);
 
     //define custom query using JPQL with named params
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.NAME_QUERY_CACHE_REGION)
+    })
     @Query("select e from Employee e where e.firstName =:firstname and e.lastName=:lastName")
     Employee findByJPQLNamedParams(@Param("firstname") String firstName, @Param("lastName") String lastName);
 
     //define custom query using Native SQL  with index params
-    @Query(value = "select * from employees e where e.first_name =?1 and e.last_name=?2", nativeQuery = true)
+    //native queries bypass @TenantId, so the tenant predicate is spelled out
+    //the query space ties the cached native result to the employees table, so any write to it invalidates the result
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.NAME_QUERY_CACHE_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")
+    })
+    @Query(value = "select * from employees e where e.first_name =?1 and e.last_name=?2"
+            + " and e.tenant_id = ?#{T(mori.java.springboottesting.tenant.TenantContext).getTenantId()}", nativeQuery = true)
     Employee findByNativeSql(String firstName, String lastName);
 
     //define custom query using Native SQL with named params
-    @Query(value = "select * from employees e where e.first_name =:firstname and e.last_name=:lastName", nativeQuery = true)
+    //native queries bypass @TenantId, so the tenant predicate is spelled out
+    //the query space ties the cached native result to the employees table, so any write to it invalidates the result
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Employee.NAME_QUERY_CACHE_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")
+    })
+    @Query(value = "select * from employees e where e.first_name =:firstname and e.last_name=:lastName"
+            + " and e.tenant_id = :#{T(mori.java.springboottesting.tenant.TenantContext).getTenantId()}", nativeQuery = true)
     Employee findByNativeSqlNamedParams(@Param("firstname") String firstName, @Param("lastName") String lastName);
 
 }
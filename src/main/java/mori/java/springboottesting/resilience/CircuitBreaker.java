@@ -0,0 +1,112 @@
+package mori.java.springboottesting.resilience;
+
+import java.time.Clock;
+import java.time.Instant;
+
+// Count-based circuit breaker over the outcomes of the last reads. Open: every read is refused until open-duration
+// has passed. Half-open: a few trial reads go through, all of them succeeding closes it, any failure opens it again.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final ResilienceProperties properties;
+
+    private final Clock clock;
+
+    //true marks a failure, written round-robin
+    private final boolean[] window;
+
+    private int next;
+
+    private int calls;
+
+    private int failures;
+
+    private State state = State.CLOSED;
+
+    private Instant openedAt;
+
+    private int trialsStarted;
+
+    private int trialsSucceeded;
+
+    public CircuitBreaker(ResilienceProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.window = new boolean[properties.getSlidingWindowSize()];
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(properties.getOpenDuration()))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= properties.getHalfOpenCalls()) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= properties.getHalfOpenCalls()) {
+                state = State.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && calls >= properties.getMinimumCalls()
+                && failures * 100 >= properties.getFailureRateThreshold() * calls) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.instant();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
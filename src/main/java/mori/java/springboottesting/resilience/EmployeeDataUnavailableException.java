@@ -0,0 +1,16 @@
+package mori.java.springboottesting.resilience;
+
+//the database could not answer in time and the snapshot has no copy of the result; ApiExceptionHandler maps it to 503
+public class EmployeeDataUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public EmployeeDataUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,67 @@
+package mori.java.springboottesting.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import mori.java.springboottesting.event.EmployeeEvent;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Last successful result of every @ResilientRead call, per tenant, method and arguments, served while the database
+// cannot answer. Committed writes refresh the by-id entries so a deleted employee is not served again; lists stay
+// as they were read. Bounded by the number of employees held, least recently used results go first.
+public class LastKnownGoodSnapshot {
+
+    static final String BY_ID_METHOD = "getEmployeeById";
+
+    private final Cache<String, Snapshot> snapshots;
+
+    private final Clock clock;
+
+    public LastKnownGoodSnapshot(ResilienceProperties properties, Clock clock) {
+        this.clock = clock;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(properties.getSnapshotMaximumEmployees())
+                .weigher((String key, Snapshot snapshot) -> weight(snapshot.getValue()))
+                .build();
+    }
+
+    public static String key(String tenantId, String method, Object[] args) {
+        return tenantId + ":" + method + Arrays.toString(args);
+    }
+
+    public void put(String key, Object value) {
+        snapshots.put(key, new Snapshot(value, clock.instant()));
+    }
+
+    public Snapshot get(String key) {
+        return snapshots.getIfPresent(key);
+    }
+
+    public long size() {
+        return snapshots.estimatedSize();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent(EmployeeEvent event) {
+        String key = key(event.getTenantId(), BY_ID_METHOD, new Object[]{event.getId()});
+        if (event.getType() == EmployeeEvent.Type.DELETED) {
+            snapshots.invalidate(key);
+        } else if (snapshots.getIfPresent(key) != null) {
+            put(key, Optional.of(event.getEmployee()));
+        }
+    }
+
+    private static int weight(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        if (value instanceof Slice<?> slice) {
+            return slice.getNumberOfElements() + 1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,30 @@
+package mori.java.springboottesting.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "employees.resilience.enabled", havingValue = "true")
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreaker employeeReadCircuitBreaker(ResilienceProperties properties) {
+        return new CircuitBreaker(properties, Clock.systemUTC());
+    }
+
+    @Bean
+    public LastKnownGoodSnapshot lastKnownGoodSnapshot(ResilienceProperties properties) {
+        return new LastKnownGoodSnapshot(properties, Clock.systemUTC());
+    }
+
+    @Bean
+    public ResilientReadAspect resilientReadAspect(ResilienceProperties properties, CircuitBreaker circuitBreaker,
+                                                   LastKnownGoodSnapshot snapshot, MeterRegistry meterRegistry) {
+        return new ResilientReadAspect(properties, circuitBreaker, snapshot, meterRegistry);
+    }
+}
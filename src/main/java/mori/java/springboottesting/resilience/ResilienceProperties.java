@@ -0,0 +1,42 @@
+package mori.java.springboottesting.resilience;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+
+    //longest a request waits for a read, the query itself may run on until the database gives up
+    private Duration queryTimeout = Duration.ofSeconds(2);
+
+    //reads of one service method running at once, including timed out ones still holding their connection
+    private int maxConcurrentCalls = 32;
+
+    //worker threads shared by all methods, including timed out reads still holding their connection
+    private int maxThreads = 64;
+
+    //how long a read waits for a bulkhead slot before it is served from the snapshot
+    private Duration bulkheadWait = Duration.ofMillis(50);
+
+    //the circuit opens when this percentage of the last sliding-window-size reads failed
+    private int failureRateThreshold = 50;
+
+    private int slidingWindowSize = 20;
+
+    //no decision before this many reads were recorded
+    private int minimumCalls = 10;
+
+    //reads go straight to the snapshot this long after the circuit opened, then trial reads probe the database
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    //successful trial reads needed to close the circuit again
+    private int halfOpenCalls = 3;
+
+    //employees kept in the last-known-good snapshot, a list counts as its size
+    private long snapshotMaximumEmployees = 200_000;
+
+}
@@ -0,0 +1,13 @@
+package mori.java.springboottesting.resilience;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a read-only service method whose result may be served from the last-known-good snapshot
+// when the database is slow or down, see ResilientReadAspect
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ResilientRead {
+}
@@ -0,0 +1,200 @@
+package mori.java.springboottesting.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.PersistenceException;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.sql.RequestStatements;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Keeps a slow or failing database from tying up request threads. A @ResilientRead call runs on a worker thread
+// while the request thread waits at most query-timeout; a bulkhead per method caps the workers, counting timed out
+// ones until their query actually returns, and a circuit breaker stops sending reads to a database that keeps
+// failing. Every refused, failed or timed out read is answered from LastKnownGoodSnapshot and marked stale for
+// StaleResponseAdvice, or with 503 when the snapshot has nothing for it.
+// Ordered inside the cache interceptor, so a cache hit never leaves the request thread, and ahead of the transaction
+// and connection tracking advice (at the lowest precedence), so both happen on the worker; inside a transaction
+// the call would run as is.
+@Slf4j
+@Aspect
+@Order(ResilientReadAspect.ORDER)
+public class ResilientReadAspect {
+
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    static final String STALE_SINCE_ATTRIBUTE = ResilientReadAspect.class.getName() + ".staleSince";
+
+    private final ResilienceProperties properties;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final LastKnownGoodSnapshot snapshot;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
+    //bounded by max-threads across all methods, no queue: a read either gets a worker or is served from the snapshot
+    private final ExecutorService executor;
+
+    public ResilientReadAspect(ResilienceProperties properties, CircuitBreaker circuitBreaker,
+                               LastKnownGoodSnapshot snapshot, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.circuitBreaker = circuitBreaker;
+        this.snapshot = snapshot;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(0, properties.getMaxThreads(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "employee-read-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("employees.resilience.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        Gauge.builder("employees.resilience.snapshot.size", snapshot, LastKnownGoodSnapshot::size)
+                .register(meterRegistry);
+    }
+
+    @Around("@annotation(mori.java.springboottesting.resilience.ResilientRead)")
+    public Object read(ProceedingJoinPoint joinPoint) throws Throwable {
+        //a caller's transaction cannot follow the read to another thread
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getName();
+        String tenantId = TenantContext.getTenantId();
+        RequestStatements statements = RequestStatements.current();
+        String key = LastKnownGoodSnapshot.key(tenantId, method, joinPoint.getArgs());
+        Semaphore bulkhead = bulkheads.computeIfAbsent(method, this::bulkhead);
+        if (!bulkhead.tryAcquire(properties.getBulkheadWait().toNanos(), TimeUnit.NANOSECONDS)) {
+            return fallback(method, key, "bulkhead_full", null);
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            return fallback(method, key, "circuit_open", null);
+        }
+        //whoever claims the read first releases the permit: the worker when it ends, or the timeout when it cancels a
+        //read no worker has started yet, whose finally would never run
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<Object> result;
+        try {
+            result = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                TenantContext.setTenantId(tenantId);
+                RequestStatements.attach(statements);
+                try {
+                    return proceed(joinPoint);
+                } finally {
+                    TenantContext.clear();
+                    RequestStatements.detach();
+                    bulkhead.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //every worker is still waiting on an earlier read, the database is not keeping up
+            bulkhead.release();
+            circuitBreaker.onFailure();
+            return fallback(method, key, "executor_full", e);
+        }
+        try {
+            Object value = result.get(properties.getQueryTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess();
+            count(method, "success");
+            snapshot.put(key, value);
+            return value;
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            if (claimed.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+            circuitBreaker.onFailure();
+            return fallback(method, key, "timeout", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (!isDatabaseFailure(cause)) {
+                circuitBreaker.onSuccess();
+                throw cause;
+            }
+            circuitBreaker.onFailure();
+            return fallback(method, key, "failure", cause);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private Object fallback(String method, String key, String outcome, Throwable cause) {
+        count(method, outcome);
+        Snapshot stale = snapshot.get(key);
+        if (stale == null) {
+            meterRegistry.counter("employees.resilience.unavailable", "method", method).increment();
+            throw new EmployeeDataUnavailableException("Employee data is temporarily unavailable (" + outcome + ")",
+                    Math.max(1, properties.getOpenDuration().toSeconds()), cause);
+        }
+        log.debug("Serving {} from the snapshot of {} ({})", method, stale.getTakenAt(), outcome);
+        meterRegistry.counter("employees.resilience.stale.responses", "method", method).increment();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(STALE_SINCE_ATTRIBUTE, stale.getTakenAt(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return stale.getValue();
+    }
+
+    private Semaphore bulkhead(String method) {
+        Semaphore bulkhead = new Semaphore(properties.getMaxConcurrentCalls());
+        Gauge.builder("employees.resilience.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("method", method)
+                .register(meterRegistry);
+        return bulkhead;
+    }
+
+    private void count(String method, String outcome) {
+        meterRegistry.counter("employees.resilience.calls", "method", method, "outcome", outcome).increment();
+    }
+
+    private static boolean isDatabaseFailure(Throwable e) {
+        return e instanceof DataAccessException || e instanceof TransactionException
+                || e instanceof PersistenceException || e instanceof SQLException;
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) throws Exception {
+        try {
+            return joinPoint.proceed();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package mori.java.springboottesting.resilience;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//a read result and when it was read from the database
+@Data
+@AllArgsConstructor
+public class Snapshot {
+
+    private Object value;
+
+    private Instant takenAt;
+}
@@ -0,0 +1,46 @@
+package mori.java.springboottesting.resilience;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Marks responses built from LastKnownGoodSnapshot: X-Data-Stale: true and Age, the seconds since the data was read
+@ControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STALE_HEADER = "X-Data-Stale";
+
+    private final Clock clock = Clock.systemUTC();
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            HttpServletRequest httpRequest = servletRequest.getServletRequest();
+            if (httpRequest.getAttribute(ResilientReadAspect.STALE_SINCE_ATTRIBUTE) instanceof Instant staleSince) {
+                response.getHeaders().set(STALE_HEADER, "true");
+                response.getHeaders().set(HttpHeaders.AGE,
+                        String.valueOf(Math.max(0, Duration.between(staleSince, clock.instant()).toSeconds())));
+                //a stale copy must not be kept by caches in front of the service
+                response.getHeaders().setCacheControl("no-store");
+            }
+        }
+        return body;
+    }
+}
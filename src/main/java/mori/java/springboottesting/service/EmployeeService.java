@@ -3,16 +3,27 @@ package mori.java.springboottesting.service;
 import java.util.List;
 import java.util.Optional;
 import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.query.EmployeeFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
 
     List<Employee> getAllEmployees();
 
+    List<Employee> getAllEmployees(boolean includeArchived);
+
+    Page<Employee> findEmployees(EmployeeFilter filter, Pageable pageable);
+
     Optional<Employee> getEmployeeById(long id);
 
     Employee updateEmployee(Employee updatedEmployee);
 
+    Optional<Employee> updateEmployee(long id, Employee employee);
+
     void deleteEmployee(long id);
 
+    Optional<Employee> archiveEmployee(long id);
+
 }
@@ -1,46 +1,156 @@
 package mori.java.springboottesting.service.impl;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import lombok.AllArgsConstructor;
+import mori.java.springboottesting.cache.CacheConfig;
+import mori.java.springboottesting.email.EmailFilter;
+import mori.java.springboottesting.event.EmployeeEvent;
+import mori.java.springboottesting.exception.EmployeeAlreadyExistsException;
 import mori.java.springboottesting.exception.ResourceNotFoundException;
+import mori.java.springboottesting.model.ArchivedEmployee;
 import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.query.EmployeeFilter;
+import mori.java.springboottesting.query.EmployeeSpecifications;
+import mori.java.springboottesting.repository.EmployeeArchiveRepository;
 import mori.java.springboottesting.repository.EmployeeRepository;
+import mori.java.springboottesting.resilience.ResilientRead;
 import mori.java.springboottesting.service.EmployeeService;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+//reads run in read-only transactions: HibernateJpaDialect switches the session to FlushMode.MANUAL
+//and marks the connection read-only, so no dirty checking or flush happens on the read path
 @Service
 @AllArgsConstructor
+@Transactional(readOnly = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
+    //ids are only unique per tenant in SCHEMA mode, so cache entries are scoped by tenant
+    private static final String ID_KEY = "T(mori.java.springboottesting.tenant.TenantContext).key(#id)";
+
+    private static final String UPDATED_ID_KEY =
+            "T(mori.java.springboottesting.tenant.TenantContext).key(#updatedEmployee.id)";
+
     private EmployeeRepository employeeRepository;
 
+    private EmployeeArchiveRepository employeeArchiveRepository;
+
+    private EmailFilter emailFilter;
+
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exist with given email;" + employee.getEmail());
+        if (emailFilter.mightContain(employee.getEmail())) {
+            Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
+            if (savedEmployee.isPresent()) {
+                throw new EmployeeAlreadyExistsException("Employee already exist with given email;" + employee.getEmail());
+            }
+            emailFilter.recordFalsePositive();
         }
-        return employeeRepository.save(employee);
+        Employee savedEmployee = employeeRepository.save(employee);
+        emailFilter.add(savedEmployee.getEmail());
+        publish(EmployeeEvent.Type.CREATED, savedEmployee.getId(), null, savedEmployee);
+        return savedEmployee;
     }
 
     @Override
+    @ResilientRead
     public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+        return getAllEmployees(false);
+    }
+
+    @Override
+    @ResilientRead
+    public List<Employee> getAllEmployees(boolean includeArchived) {
+        List<Employee> employees = employeeRepository.findByArchivedFalse();
+        if (!includeArchived) {
+            return employees;
+        }
+        List<ArchivedEmployee> archivedEmployees = employeeArchiveRepository.findAll();
+        List<Employee> allEmployees = new ArrayList<>(employees.size() + archivedEmployees.size());
+        allEmployees.addAll(employees);
+        archivedEmployees.forEach(archived -> allEmployees.add(archived.toEmployee()));
+        return allEmployees;
+    }
+
+    //active employees only, pageable must come from EmployeeQueryAllowList so the query stays on an index
+    @Override
+    @ResilientRead
+    public Page<Employee> findEmployees(EmployeeFilter filter, Pageable pageable) {
+        return employeeRepository.findAll(EmployeeSpecifications.matching(filter), pageable);
     }
 
     @Override
+    @ResilientRead
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES, key = ID_KEY, unless = "#result == null")
     public Optional<Employee> getEmployeeById(long id) {
-        return employeeRepository.findById(id);
+        //an employee moved out by the archive job still resolves, from the cold table; only a miss pays the lookup
+        Optional<Employee> employee = employeeRepository.findById(id);
+        return employee.isPresent() ? employee : employeeArchiveRepository.findById(id).map(ArchivedEmployee::toEmployee);
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = UPDATED_ID_KEY)
     public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+        return update(updatedEmployee, null);
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = ID_KEY)
+    public Optional<Employee> updateEmployee(long id, Employee employee) {
+        return employeeRepository.findById(id).map(savedEmployee -> {
+            Employee before = savedEmployee.toBuilder().build();
+            savedEmployee.setFirstName(employee.getFirstName());
+            savedEmployee.setLastName(employee.getLastName());
+            savedEmployee.setEmail(employee.getEmail());
+            return update(savedEmployee, before);
+        });
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = ID_KEY)
     public void deleteEmployee(long id) {
-        employeeRepository.deleteById(id);
+        //one DELETE instead of deleteById's SELECT then DELETE; no row means the id does not exist
+        if (employeeRepository.deleteEmployeeById(id) == 0) {
+            throw new ResourceNotFoundException("Employee not found with id " + id);
+        }
+        publish(EmployeeEvent.Type.DELETED, id, null, null);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = ID_KEY)
+    public Optional<Employee> archiveEmployee(long id) {
+        return employeeRepository.findById(id).map(employee -> {
+            Employee before = employee.toBuilder().build();
+            employee.setArchived(true);
+            Employee archivedEmployee = employeeRepository.save(employee);
+            publish(EmployeeEvent.Type.ARCHIVED, id, before, archivedEmployee);
+            return archivedEmployee;
+        });
+    }
+
+    private Employee update(Employee updatedEmployee, Employee before) {
+        Employee savedEmployee = employeeRepository.save(updatedEmployee);
+        emailFilter.add(savedEmployee.getEmail());
+        publish(EmployeeEvent.Type.UPDATED, savedEmployee.getId(), before, savedEmployee);
+        return savedEmployee;
+    }
+
+    private void publish(EmployeeEvent.Type type, long id, Employee before, Employee after) {
+        eventPublisher.publishEvent(new EmployeeEvent(type, id, TenantContext.getTenantId(), before, after));
     }
 }
@@ -0,0 +1,69 @@
+package mori.java.springboottesting.shard;
+
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Global email uniqueness for sharded storage: one employee_email_index row per tenant and normalized email, on the
+// home shard's pool. Every change commits on its own, outside the JPA transaction of the shard the employee lives
+// on, so a claim is visible to other instances before the employee row is written.
+public class EmployeeEmailIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public EmployeeEmailIndex(DataSource homeShard) {
+        this.jdbcTemplate = new JdbcTemplate(homeShard);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(homeShard));
+    }
+
+    public Long ownerOf(String key) {
+        return transactionTemplate.execute(status -> jdbcTemplate.query(
+                "select employee_id from employee_email_index where email_key = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, key));
+    }
+
+    //the employee owning the key afterwards: employeeId unless another employee already had it
+    public long claim(String key, long employeeId) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("insert into employee_email_index (email_key, employee_id) values (?, ?)"
+                    + " on conflict do nothing", key, employeeId);
+            return jdbcTemplate.queryForObject("select employee_id from employee_email_index where email_key = ?",
+                    Long.class, key);
+        });
+    }
+
+    //hands the key of an employee that no longer exists to employeeId, false when someone else took it first
+    public boolean takeOver(String key, long staleOwner, long employeeId) {
+        return transactionTemplate.execute(status -> jdbcTemplate.update(
+                "update employee_email_index set employee_id = ? where email_key = ? and employee_id = ?",
+                employeeId, key, staleOwner) == 1);
+    }
+
+    public void release(String key, long employeeId) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "delete from employee_email_index where email_key = ? and employee_id = ?", key, employeeId));
+    }
+
+    //after an email change, drops the employee's previous email
+    public void releaseOthers(long employeeId, String keptKey) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "delete from employee_email_index where employee_id = ? and email_key <> ?", employeeId, keptKey));
+    }
+
+    public void releaseAll(long employeeId) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "delete from employee_email_index where employee_id = ?", employeeId));
+    }
+
+    //every tenant's keys, must be closed
+    public Stream<String> streamKeys() {
+        return jdbcTemplate.queryForStream("select email_key from employee_email_index",
+                SingleColumnRowMapper.newInstance(String.class));
+    }
+}
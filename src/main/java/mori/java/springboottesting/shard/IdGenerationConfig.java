@@ -0,0 +1,24 @@
+package mori.java.springboottesting.shard;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Snowflake ids only with sharding, a single database keeps its identity column
+@Configuration
+@ConditionalOnProperty(name = "employees.sharding.enabled", havingValue = "true")
+public class IdGenerationConfig {
+
+    //no default: two instances with the same worker id can issue the same id in the same millisecond
+    @Bean
+    public HibernatePropertiesCustomizer snowflakeWorkerIdCustomizer(
+            @Value("${employees.ids.worker-id:#{null}}") Integer workerId) {
+        if (workerId == null) {
+            throw new IllegalStateException("employees.ids.worker-id must be set to a value unique per running instance"
+                    + " (0-" + SnowflakeIds.MAX_WORKER_ID + ") when employees.sharding.enabled=true");
+        }
+        return hibernateProperties -> hibernateProperties.put(SnowflakeIdGenerator.WORKER_ID_SETTING, workerId);
+    }
+}
@@ -0,0 +1,32 @@
+package mori.java.springboottesting.shard;
+
+// Shard the current thread's next connection comes from, read by ShardRoutingDataSource when a transaction runs its
+// first statement. Unset means the home shard (spring.datasource), which also holds the global email index.
+// Code that works on one shard directly (batch chunks, fan-out workers) sets it, and ShardedRepositoryAspect then
+// leaves repository calls alone.
+public final class ShardContext {
+
+    public static final int HOME = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int getShard() {
+        Integer shard = CURRENT.get();
+        return shard == null ? HOME : shard;
+    }
+
+    public static boolean isSet() {
+        return CURRENT.get() != null;
+    }
+
+    public static void setShard(int shard) {
+        CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,48 @@
+package mori.java.springboottesting.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+// The connection pools of all shards, index = shard. Not a DataSource bean itself, so DataSource post-processors
+// (the SQL monitor) only see the routing DataSource in front of them and count every statement once.
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> pools;
+
+    public ShardDataSources(List<HikariDataSource> pools) {
+        this.pools = List.copyOf(pools);
+    }
+
+    public DataSource get(int shard) {
+        return pools.get(shard);
+    }
+
+    public List<HikariDataSource> pools() {
+        return pools;
+    }
+
+    public int size() {
+        return pools.size();
+    }
+
+    DataSource routing() {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < pools.size(); shard++) {
+            targets.put(shard, pools.get(shard));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(pools.get(ShardContext.HOME));
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
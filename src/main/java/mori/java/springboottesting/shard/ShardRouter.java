@@ -0,0 +1,61 @@
+package mori.java.springboottesting.shard;
+
+import java.util.List;
+
+// Which shard holds an employee id. The mapping is fixed by the configuration: changing the strategy, the number of
+// shards or the boundaries does not move existing rows.
+public class ShardRouter {
+
+    private final ShardingProperties.Strategy strategy;
+
+    private final int shardCount;
+
+    private final long[] rangeBoundaries;
+
+    public ShardRouter(ShardingProperties.Strategy strategy, int shardCount, List<Long> rangeBoundaries) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("at least one shard is needed");
+        }
+        this.strategy = strategy;
+        this.shardCount = shardCount;
+        this.rangeBoundaries = rangeBoundaries.stream().mapToLong(Long::longValue).toArray();
+        if (strategy == ShardingProperties.Strategy.RANGE) {
+            if (this.rangeBoundaries.length != shardCount - 1) {
+                throw new IllegalArgumentException("RANGE sharding over " + shardCount + " shards needs "
+                        + (shardCount - 1) + " range boundaries, got " + this.rangeBoundaries.length);
+            }
+            for (int i = 1; i < this.rangeBoundaries.length; i++) {
+                if (this.rangeBoundaries[i] <= this.rangeBoundaries[i - 1]) {
+                    throw new IllegalArgumentException("range boundaries must be ascending: " + rangeBoundaries);
+                }
+            }
+        }
+    }
+
+    public int shardFor(long id) {
+        if (strategy == ShardingProperties.Strategy.RANGE) {
+            int shard = 0;
+            while (shard < rangeBoundaries.length && id >= rangeBoundaries[shard]) {
+                shard++;
+            }
+            return shard;
+        }
+        return Math.floorMod(mix(id), shardCount);
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    //MurmurHash3 finalizer: at low traffic every id of an instance has the same worker bits and sequence 0, so a plain
+    //modulo by a power of two would put them all on one shard
+    static long mix(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
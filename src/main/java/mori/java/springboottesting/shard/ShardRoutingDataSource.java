@@ -0,0 +1,13 @@
+package mori.java.springboottesting.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+//the shard pool is chosen when a connection is taken, ShardingConfig puts a LazyConnectionDataSourceProxy in front
+//so that happens at the first statement of a transaction rather than when it begins
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.getShard();
+    }
+}
@@ -0,0 +1,65 @@
+package mori.java.springboottesting.shard;
+
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+// spring.jpa.hibernate.ddl-auto only reaches the home shard, the DataSource Hibernate sees at startup. With update
+// or create this applies the same mapping to every other shard, adding what is missing and never dropping anything.
+// The mapping is captured as an Integrator while the EntityManagerFactory is built.
+@Slf4j
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+
+    private static final List<String> UPDATING = List.of("update", "create", "create-drop");
+
+    private final ShardDataSources shards;
+
+    private final String ddlAuto;
+
+    private volatile Metadata metadata;
+
+    public ShardSchemaInitializer(ShardDataSources shards, String ddlAuto) {
+        this.shards = shards;
+        this.ddlAuto = ddlAuto;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (metadata == null || !UPDATING.contains(ddlAuto)) {
+            return;
+        }
+        for (int shard = 1; shard < shards.size(); shard++) {
+            StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                    .applySetting(AvailableSettings.DATASOURCE, shards.get(shard))
+                    .build();
+            try {
+                //what ddl-auto=update runs on the home shard, nothing is ever dropped so no drop actions are kept
+                SchemaManagementToolCoordinator.process(metadata, registry,
+                        Map.of(AvailableSettings.JAKARTA_HBM2DDL_DATABASE_ACTION, "update"), action -> {
+                        });
+                log.info("Schema of shard {} updated", shard);
+            } finally {
+                StandardServiceRegistryBuilder.destroy(registry);
+            }
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package mori.java.springboottesting.shard;
+
+import jakarta.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import mori.java.springboottesting.exception.EmployeeAlreadyExistsException;
+import mori.java.springboottesting.model.ArchivedEmployee;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.query.EmployeeQueryAllowList;
+import mori.java.springboottesting.query.InvalidEmployeeQueryException;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import mori.java.springboottesting.sql.RequestStatements;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Spreads EmployeeRepository and EmployeeArchiveRepository over the shards. Calls by id go to the one shard that
+// holds the id, everything else runs on every shard in parallel and the results are merged: lists are concatenated
+// (and merge-sorted when the call has a Sort), pages are cut from the merged first pages of every shard, counts are
+// added up. Each shard call runs in its own transaction, a caller's transaction cannot span shards, so entities
+// come back detached and changes must go through save.
+// New employees get their id when persisted, so the insert waits for the commit and goes to the shard of that id.
+// Emails are claimed in EmployeeEmailIndex before an insert or email change commits; a claim held by an employee
+// that no longer exists (deleted or archived by a bulk statement) is taken over.
+// Calls made while ShardContext is set are left alone.
+@Aspect
+public class ShardedRepositoryAspect {
+
+    private static final Set<String> BY_ID = Set.of("findById", "existsById", "getById", "getReferenceById", "getOne",
+            "deleteById", "deleteEmployeeById");
+
+    private final ShardRouter router;
+
+    private final EmployeeEmailIndex emailIndex;
+
+    private final TransactionTemplate readTransaction;
+
+    private final TransactionTemplate writeTransaction;
+
+    private final ExecutorService executor;
+
+    public ShardedRepositoryAspect(ShardRouter router, EmployeeEmailIndex emailIndex,
+                                   PlatformTransactionManager transactionManager, int fanOutThreads) {
+        this.router = router;
+        this.emailIndex = emailIndex;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(fanOutThreads, runnable -> {
+            Thread thread = new Thread(runnable, "employee-shard-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Around("target(mori.java.springboottesting.repository.EmployeeRepository)"
+            + " || target(mori.java.springboottesting.repository.EmployeeArchiveRepository)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.isSet()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = method.getName();
+        Object[] args = joinPoint.getArgs();
+        if (BY_ID.contains(name) && args.length == 1 && args[0] instanceof Long id) {
+            Object result = onShard(router.shardFor(id), isRead(name), joinPoint, args);
+            if (name.startsWith("delete") && joinPoint.getThis() instanceof EmployeeRepository) {
+                emailIndex.releaseAll(id);
+            }
+            return result;
+        }
+        switch (name) {
+            case "save", "saveAndFlush":
+                return save(joinPoint, args, args[0]);
+            case "saveAll", "saveAllAndFlush":
+                return saveEach(joinPoint, (Iterable<?>) args[0]);
+            case "delete":
+                return delete(joinPoint, args, args[0]);
+            case "streamAllTenantEmailKeys":
+                return emailIndex.streamKeys();
+            default:
+                break;
+        }
+        if (Stream.class.isAssignableFrom(method.getReturnType())) {
+            throw new IllegalStateException(name + " streams from a single shard, set ShardContext before calling it");
+        }
+        return fanOut(joinPoint, method, args);
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private Object save(ProceedingJoinPoint joinPoint, Object[] args, Object entity) {
+        if (entity instanceof ArchivedEmployee archived) {
+            return onShard(router.shardFor(archived.getId()), false, joinPoint, args);
+        }
+        Employee employee = (Employee) entity;
+        if (employee.getId() != 0) {
+            return update(joinPoint, args, employee);
+        }
+        if (joinPoint.getSignature().getName().equals("saveAndFlush")) {
+            //the flush would run before the id, and so the shard, is known; the commit of save flushes as well
+            return ((EmployeeRepository) joinPoint.getThis()).save(employee);
+        }
+        return insert(joinPoint, args, employee);
+    }
+
+    private Object insert(ProceedingJoinPoint joinPoint, Object[] args, Employee employee) {
+        String[] claimed = new String[1];
+        try {
+            return writeTransaction.execute(status -> {
+                //persist assigns the id without any SQL, the insert runs at commit on the shard set here
+                Employee saved = (Employee) proceed(joinPoint, args);
+                claimed[0] = claim(joinPoint, saved);
+                ShardContext.setShard(router.shardFor(saved.getId()));
+                return saved;
+            });
+        } catch (RuntimeException | Error e) {
+            if (claimed[0] != null) {
+                emailIndex.release(claimed[0], employee.getId());
+            }
+            throw e;
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    private Object update(ProceedingJoinPoint joinPoint, Object[] args, Employee employee) {
+        String claimed = claim(joinPoint, employee);
+        Object saved;
+        try {
+            saved = onShard(router.shardFor(employee.getId()), false, joinPoint, args);
+        } catch (RuntimeException | Error e) {
+            if (claimed != null) {
+                emailIndex.release(claimed, employee.getId());
+            }
+            throw e;
+        }
+        if (claimed != null) {
+            emailIndex.releaseOthers(employee.getId(), claimed);
+        }
+        return saved;
+    }
+
+    //the key newly claimed for the employee's email, null when the employee already held it
+    private String claim(ProceedingJoinPoint joinPoint, Employee employee) {
+        String key = TenantContext.key(Employee.normalizeEmail(employee.getEmail()));
+        long id = employee.getId();
+        Long owner = emailIndex.ownerOf(key);
+        if (owner != null && owner == id) {
+            return null;
+        }
+        owner = emailIndex.claim(key, id);
+        if (owner != id && (((EmployeeRepository) joinPoint.getThis()).existsById(owner)
+                || !emailIndex.takeOver(key, owner, id))) {
+            throw new EmployeeAlreadyExistsException("Employee already exist with given email;" + employee.getEmail());
+        }
+        return key;
+    }
+
+    private Object saveEach(ProceedingJoinPoint joinPoint, Iterable<?> entities) {
+        @SuppressWarnings("unchecked")
+        JpaRepository<Object, Long> repository = (JpaRepository<Object, Long>) joinPoint.getThis();
+        List<Object> saved = new ArrayList<>();
+        for (Object entity : entities) {
+            saved.add(repository.save(entity));
+        }
+        return saved;
+    }
+
+    private Object delete(ProceedingJoinPoint joinPoint, Object[] args, Object entity) {
+        if (entity instanceof ArchivedEmployee archived) {
+            return onShard(router.shardFor(archived.getId()), false, joinPoint, args);
+        }
+        long id = ((Employee) entity).getId();
+        Object result = onShard(router.shardFor(id), false, joinPoint, args);
+        emailIndex.releaseAll(id);
+        return result;
+    }
+
+    private Object onShard(int shard, boolean readOnly, ProceedingJoinPoint joinPoint, Object[] args) {
+        ShardContext.setShard(shard);
+        try {
+            return (readOnly ? readTransaction : writeTransaction).execute(status -> proceed(joinPoint, args));
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    private Object fanOut(ProceedingJoinPoint joinPoint, Method method, Object[] args) throws Throwable {
+        boolean readOnly = isRead(method.getName());
+        Pageable pageable = find(args, Pageable.class);
+        Object[] shardArgs = args;
+        if (pageable != null && pageable.isPaged()) {
+            //any row of the merged page can come from any shard, so every shard returns everything up to its end
+            long end = pageable.getOffset() + pageable.getPageSize();
+            if (end > EmployeeQueryAllowList.MAX_RESULT_WINDOW) {
+                throw new InvalidEmployeeQueryException("A page across shards cannot end after row "
+                        + EmployeeQueryAllowList.MAX_RESULT_WINDOW + ", asked for " + end);
+            }
+            shardArgs = args.clone();
+            int rows = (int) end;
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] == pageable) {
+                    shardArgs[i] = PageRequest.of(0, rows, pageable.getSort());
+                }
+            }
+        }
+        Object[] finalArgs = shardArgs;
+        String tenantId = TenantContext.getTenantId();
+        RequestStatements statements = RequestStatements.current();
+        List<Future<Object>> results = new ArrayList<>(router.shardCount());
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            int target = shard;
+            results.add(executor.submit(() -> {
+                TenantContext.setTenantId(tenantId);
+                RequestStatements.attach(statements);
+                try {
+                    return onShard(target, readOnly, joinPoint, finalArgs);
+                } finally {
+                    TenantContext.clear();
+                    RequestStatements.detach();
+                }
+            }));
+        }
+        List<Object> merged = new ArrayList<>(results.size());
+        try {
+            for (Future<Object> result : results) {
+                merged.add(result.get());
+            }
+        } catch (ExecutionException e) {
+            results.forEach(result -> result.cancel(true));
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            results.forEach(result -> result.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", e);
+        }
+        Sort sort = pageable != null ? pageable.getSort() : find(args, Sort.class);
+        return merge(method, pageable, sort == null ? Sort.unsorted() : sort, merged);
+    }
+
+    private static Object merge(Method method, Pageable pageable, Sort sort, List<Object> results) {
+        Class<?> type = method.getReturnType();
+        if (Page.class.isAssignableFrom(type)) {
+            List<Object> content = new ArrayList<>();
+            long total = 0;
+            for (Object result : results) {
+                Page<?> page = (Page<?>) result;
+                content.addAll(page.getContent());
+                total += page.getTotalElements();
+            }
+            sort(content, sort);
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(content, pageable, total);
+            }
+            int from = (int) Math.min(pageable.getOffset(), content.size());
+            int to = Math.min(from + pageable.getPageSize(), content.size());
+            return new PageImpl<>(new ArrayList<>(content.subList(from, to)), pageable, total);
+        }
+        if (Iterable.class.isAssignableFrom(type)) {
+            List<Object> content = new ArrayList<>();
+            for (Object result : results) {
+                ((Iterable<?>) result).forEach(content::add);
+            }
+            sort(content, sort);
+            return content;
+        }
+        if (type == Optional.class) {
+            return results.stream().map(Optional.class::cast).filter(Optional::isPresent).findFirst()
+                    .orElse(Optional.empty());
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return results.stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (type == void.class) {
+            return null;
+        }
+        if (Number.class.isAssignableFrom(type) || type.isPrimitive()) {
+            return sum(type, results);
+        }
+        //a single entity
+        return results.stream().filter(result -> result != null).findFirst().orElse(null);
+    }
+
+    //counts and updated rows
+    private static Object sum(Class<?> type, List<Object> results) {
+        long sum = results.stream().mapToLong(result -> ((Number) result).longValue()).sum();
+        return type == int.class || type == Integer.class ? (Object) Math.toIntExact(sum) : (Object) sum;
+    }
+
+    private static void sort(List<Object> content, Sort sort) {
+        if (sort.isUnsorted()) {
+            return;
+        }
+        Comparator<Object> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> byProperty = Comparator.comparing(entity -> sortValue(entity, order),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        content.sort(comparator);
+    }
+
+    //the derived email columns are lazy and the entities detached, so they are computed from email instead
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Comparable<Object> sortValue(Object entity, Sort.Order order) {
+        Object value;
+        if (entity instanceof Employee employee && order.getProperty().equals("emailNormalized")) {
+            value = Employee.normalizeEmail(employee.getEmail());
+        } else if (entity instanceof Employee employee && order.getProperty().equals("emailDomain")) {
+            value = Employee.emailDomain(Employee.normalizeEmail(employee.getEmail()));
+        } else {
+            value = new BeanWrapperImpl(entity).getPropertyValue(order.getProperty());
+        }
+        if (order.isIgnoreCase() && value instanceof String text) {
+            value = text.toLowerCase(Locale.ROOT);
+        }
+        return (Comparable) value;
+    }
+
+    private static boolean isRead(String method) {
+        return method.startsWith("find") || method.startsWith("exists") || method.startsWith("count")
+                || method.startsWith("get") || method.startsWith("stream");
+    }
+
+    private static <T> T find(Object[] args, Class<T> type) {
+        for (Object arg : args) {
+            if (type.isInstance(arg)) {
+                return type.cast(arg);
+            }
+        }
+        return null;
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint, Object[] args) {
+        try {
+            return joinPoint.proceed(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
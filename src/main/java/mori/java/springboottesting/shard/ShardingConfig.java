@@ -0,0 +1,98 @@
+package mori.java.springboottesting.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// employees.sharding.enabled=true: employees live on spring.datasource (shard 0) plus every employees.sharding.shards
+// entry, one connection pool each. JPA, JDBC code and transactions see a single DataSource that connects to the
+// shard in ShardContext; ShardedRepositoryAspect sets it for repository calls.
+@Configuration
+@ConditionalOnProperty(name = "employees.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        return new ShardRouter(properties.getStrategy(), properties.getShards().size() + 1,
+                properties.getRangeBoundaries());
+    }
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties dataSourceProperties, ShardingProperties properties,
+                                             Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(pool(dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build(), 0,
+                binder, meterRegistry));
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            pools.add(pool(dataSource, pools.size(), binder, meterRegistry));
+        }
+        return new ShardDataSources(pools);
+    }
+
+    //takes the place of the DataSource Boot would create; lazy, so the shard is picked at the first statement
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shards) {
+        return new LazyConnectionDataSourceProxy(shards.routing());
+    }
+
+    @Bean
+    public EmployeeEmailIndex employeeEmailIndex(ShardDataSources shards) {
+        return new EmployeeEmailIndex(shards.get(ShardContext.HOME));
+    }
+
+    @Bean
+    public ShardedRepositoryAspect shardedRepositoryAspect(ShardRouter router, EmployeeEmailIndex emailIndex,
+                                                           PlatformTransactionManager transactionManager,
+                                                           ShardingProperties properties) {
+        return new ShardedRepositoryAspect(router, emailIndex, transactionManager, properties.getFanOutThreads());
+    }
+
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(ShardDataSources shards,
+                                                         @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return new ShardSchemaInitializer(shards, ddlAuto);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaCustomizer(ShardSchemaInitializer initializer) {
+        return hibernateProperties -> hibernateProperties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(initializer));
+    }
+
+    //the spring.datasource.hikari settings apply to every shard
+    private static HikariDataSource pool(HikariDataSource dataSource, int shard, Binder binder,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("employees-shard-" + shard);
+        meterRegistry.ifAvailable(registry ->
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+}
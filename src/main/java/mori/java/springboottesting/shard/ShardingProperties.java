@@ -0,0 +1,42 @@
+package mori.java.springboottesting.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.sharding")
+public class ShardingProperties {
+
+    public enum Strategy {
+        //spreads ids evenly, every shard takes new employees
+        HASH,
+        //shard n holds ids from range-boundaries[n - 1] up to range-boundaries[n]; Snowflake ids grow with time,
+        //so this is sharding by creation time and the last shard takes all new employees
+        RANGE
+    }
+
+    private boolean enabled = false;
+
+    private Strategy strategy = Strategy.HASH;
+
+    //shards 1..n, shard 0 is spring.datasource; every shard uses the spring.datasource.hikari settings
+    private List<Shard> shards = new ArrayList<>();
+
+    //RANGE only: ascending, one per entry of shards
+    private List<Long> rangeBoundaries = new ArrayList<>();
+
+    //shared by all fan-out queries, each running query holds a connection of its shard
+    private int fanOutThreads = 16;
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
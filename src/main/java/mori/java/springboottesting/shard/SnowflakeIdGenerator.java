@@ -0,0 +1,43 @@
+package mori.java.springboottesting.shard;
+
+import java.time.Clock;
+import java.util.Properties;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+// Employee ids. The column stays an identity column (generated by default, so explicit values are accepted) and the
+// database assigns ids on insert, unless the WORKER_ID_SETTING Hibernate property is set, which IdGenerationConfig
+// only does with sharding on: ids then come from SnowflakeIds when the entity is persisted, before any SQL runs, so
+// the row can be routed to the shard of its id.
+public class SnowflakeIdGenerator extends IdentityGenerator implements BeforeExecutionGenerator {
+
+    public static final String WORKER_ID_SETTING = "employees.ids.worker-id";
+
+    private SnowflakeIds ids;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Integer workerId = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(WORKER_ID_SETTING, StandardConverters.INTEGER);
+        if (workerId != null) {
+            ids = new SnowflakeIds(workerId, Clock.systemUTC());
+        }
+    }
+
+    @Override
+    public boolean generatedOnExecution() {
+        return ids == null;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return ids.nextId();
+    }
+}
@@ -0,0 +1,60 @@
+package mori.java.springboottesting.shard;
+
+import java.time.Clock;
+import java.time.Instant;
+
+// Ids unique across every node and shard without asking a database: 41 bits of milliseconds since EPOCH
+// (about 69 years), 6 bits of worker id (employees.ids.worker-id, unique per running instance) and a 6 bit
+// sequence within the millisecond, 64000 ids a second per instance. Ids grow with time, so they stay in insertion
+// order and index appends stay cheap. 53 bits in all, so they stay exact as JSON numbers in JavaScript clients.
+public class SnowflakeIds {
+
+    public static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    static final int WORKER_BITS = 6;
+
+    static final int SEQUENCE_BITS = 6;
+
+    public static final int MAX_WORKER_ID = (1 << WORKER_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long workerId;
+
+    private final Clock clock;
+
+    private long lastMillis = -1;
+
+    private long sequence;
+
+    public SnowflakeIds(int workerId, Clock clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("worker id must be between 0 and " + MAX_WORKER_ID + ", was " + workerId);
+        }
+        this.workerId = workerId;
+        this.clock = clock;
+    }
+
+    public synchronized long nextId() {
+        long millis = clock.millis() - EPOCH.toEpochMilli();
+        //a clock stepped back keeps issuing from the last millisecond instead of repeating ids
+        if (millis < lastMillis) {
+            millis = lastMillis;
+        }
+        if (millis == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                //64 ids in one millisecond, borrow the next one
+                millis = ++lastMillis;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = millis;
+        return (millis << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | sequence;
+    }
+
+    public static Instant timestampOf(long id) {
+        return EPOCH.plusMillis(id >>> (WORKER_BITS + SEQUENCE_BITS));
+    }
+}
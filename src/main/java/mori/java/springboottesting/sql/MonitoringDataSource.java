@@ -0,0 +1,103 @@
+package mori.java.springboottesting.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.util.ClassUtils;
+
+// JDK proxies around the pool's DataSource and the connections, statements and result sets it hands out. Every
+// execute* call is timed and reported to SqlMonitor with its SQL; rows are counted as result sets are read.
+// All other calls, unwrap included, go straight to the pool objects, so unwrap(HikariDataSource.class) still works.
+final class MonitoringDataSource {
+
+    private MonitoringDataSource() {
+    }
+
+    static DataSource wrap(DataSource dataSource, SqlMonitor monitor) {
+        //every interface of the pool, so Closeable and the Hikari MXBean stay visible, shutdown included
+        return (DataSource) Proxy.newProxyInstance(MonitoringDataSource.class.getClassLoader(),
+                ClassUtils.getAllInterfacesForClass(dataSource.getClass(), MonitoringDataSource.class.getClassLoader()),
+                handler(dataSource, (method, result, args) -> method.getName().equals("getConnection")
+                        ? wrap(Connection.class, connectionHandler((Connection) result, monitor))
+                        : result));
+    }
+
+    private static InvocationHandler connectionHandler(Connection connection, SqlMonitor monitor) {
+        return handler(connection, (method, result, args) -> {
+            if (result instanceof Statement statement) {
+                //prepareStatement and prepareCall take the SQL up front, createStatement gets it on execute
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return wrap(method.getReturnType(), statementHandler(statement, sql, monitor));
+            }
+            return result;
+        });
+    }
+
+    private static InvocationHandler statementHandler(Statement statement, String preparedSql, SqlMonitor monitor) {
+        return (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode")) {
+                return identity(proxy, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                Object result = invoke(statement, method, args);
+                return name.equals("getResultSet") && result != null ? countingRows((ResultSet) result) : result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            Object result = invoke(statement, method, args);
+            monitor.executed(sql, System.nanoTime() - start);
+            return result instanceof ResultSet resultSet ? countingRows(resultSet) : result;
+        };
+    }
+
+    private static Object countingRows(ResultSet resultSet) {
+        RequestStatements statements = RequestStatements.current();
+        if (statements == null) {
+            return resultSet;
+        }
+        return wrap(ResultSet.class, handler(resultSet, (method, result, args) -> {
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                statements.addRow();
+            }
+            return result;
+        }));
+    }
+
+    //calls the target, then lets after replace the result; equals and hashCode stay on the proxy's identity
+    private static InvocationHandler handler(Object target, AfterCall after) {
+        return (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode")) {
+                return identity(proxy, method, args);
+            }
+            return after.apply(method, invoke(target, method, args), args);
+        };
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object wrap(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(MonitoringDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @FunctionalInterface
+    private interface AfterCall {
+        Object apply(Method method, Object result, Object[] args) throws Throwable;
+    }
+}
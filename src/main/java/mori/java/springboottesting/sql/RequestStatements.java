@@ -0,0 +1,105 @@
+package mori.java.springboottesting.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Statements, rows and statement time of one request, started by SqlMonitorInterceptor.
+// Code handing a request's database work to another thread attaches it there, like TenantContext, so the counters
+// are updated from more than one thread.
+public final class RequestStatements {
+
+    public static final int NO_BUDGET = -1;
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+
+    private final int budget;
+
+    private final AtomicInteger statements = new AtomicInteger();
+
+    private final AtomicLong rows = new AtomicLong();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final Map<String, AtomicInteger> executionsBySql = new ConcurrentHashMap<>();
+
+    //statements that reached the repeated-statement threshold, with the code that ran them
+    private final Map<String, String> repeated = new ConcurrentHashMap<>();
+
+    RequestStatements(String endpoint, int budget) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+    }
+
+    public static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    public static void attach(RequestStatements statements) {
+        if (statements != null) {
+            CURRENT.set(statements);
+        }
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    //the number of statements so far, this one included
+    int executed(String sql, long statementNanos) {
+        nanos.addAndGet(statementNanos);
+        executionsBySql.computeIfAbsent(sql, key -> new AtomicInteger()).incrementAndGet();
+        return statements.incrementAndGet();
+    }
+
+    int executions(String sql) {
+        AtomicInteger executions = executionsBySql.get(sql);
+        return executions == null ? 0 : executions.get();
+    }
+
+    void repeated(String sql, String origin) {
+        repeated.putIfAbsent(sql, origin);
+    }
+
+    void addRow() {
+        rows.incrementAndGet();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public boolean isOverBudget() {
+        return budget != NO_BUDGET && statements.get() > budget;
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getNanos() {
+        return nanos.get();
+    }
+
+    public List<Repeated> getRepeated() {
+        List<Repeated> result = new ArrayList<>(repeated.size());
+        repeated.forEach((sql, origin) -> result.add(new Repeated(sql, origin, executions(sql))));
+        return result;
+    }
+
+    public record Repeated(String sql, String origin, int executions) {
+    }
+}
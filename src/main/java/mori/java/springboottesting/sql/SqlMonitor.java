@@ -0,0 +1,94 @@
+package mori.java.springboottesting.sql;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.repository.Repository;
+
+// Receives every statement and row from MonitoringDataSource. Counts them against the request in RequestStatements,
+// flags SQL repeated within a request (N+1) with the repository method or application code that ran it, and writes
+// slow statements to the log as key=value pairs, sampled, in place of spring.jpa.show-sql.
+// Statements outside a monitored request only go through the slow query check.
+@Slf4j
+public class SqlMonitor {
+
+    private static final String APPLICATION_PACKAGE = "mori.java.springboottesting.";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final SqlMonitorProperties properties;
+
+    private final long slowQueryNanos;
+
+    public SqlMonitor(SqlMonitorProperties properties) {
+        this.properties = properties;
+        this.slowQueryNanos = properties.getSlowQueryThreshold().toNanos();
+    }
+
+    void executed(String sql, long nanos) {
+        RequestStatements statements = RequestStatements.current();
+        if (nanos >= slowQueryNanos) {
+            logSlowQuery(sql, nanos, statements);
+        }
+        if (statements == null) {
+            return;
+        }
+        int count = statements.executed(sql, nanos);
+        if (statements.executions(sql) == properties.getRepeatedStatementThreshold()) {
+            String origin = origin();
+            statements.repeated(sql, origin);
+            if (properties.getBudgetMode() == SqlMonitorProperties.BudgetMode.FAIL) {
+                throw new StatementBudgetExceededException(statements.getEndpoint() + " ran the same statement "
+                        + properties.getRepeatedStatementThreshold() + " times from " + origin + ": " + sql);
+            }
+        }
+        if (statements.getBudget() != RequestStatements.NO_BUDGET && count == statements.getBudget() + 1
+                && properties.getBudgetMode() == SqlMonitorProperties.BudgetMode.FAIL) {
+            throw new StatementBudgetExceededException(statements.getEndpoint() + " exceeded its budget of "
+                    + statements.getBudget() + " statements with " + sql);
+        }
+    }
+
+    private void logSlowQuery(String sql, long nanos, RequestStatements statements) {
+        double sampleRate = properties.getSlowQuerySampleRate();
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        log.warn("slow_query duration_ms={} endpoint=\"{}\" origin={} sql=\"{}\"",
+                TimeUnit.NANOSECONDS.toMillis(nanos),
+                statements == null ? "none" : statements.getEndpoint(),
+                origin(),
+                sql);
+    }
+
+    //the outermost repository method on the stack, else the innermost application frame (lazy loading, JdbcTemplate)
+    static String origin() {
+        return STACK_WALKER.walk(frames -> {
+            String repository = null;
+            String application = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                if (Repository.class.isAssignableFrom(type)) {
+                    repository = repositoryName(type) + "." + frame.getMethodName();
+                } else if (application == null && type.getName().startsWith(APPLICATION_PACKAGE)
+                        && type != SqlMonitor.class && type != MonitoringDataSource.class) {
+                    application = type.getSimpleName() + "." + frame.getMethodName();
+                }
+            }
+            return repository != null ? repository : application != null ? application : "unknown";
+        });
+    }
+
+    //the repository interface behind a Spring Data proxy
+    private static String repositoryName(Class<?> type) {
+        if (type.isInterface()) {
+            return type.getSimpleName();
+        }
+        for (Class<?> candidate : type.getInterfaces()) {
+            if (Repository.class.isAssignableFrom(candidate) && candidate.getName().startsWith(APPLICATION_PACKAGE)) {
+                return candidate.getSimpleName();
+            }
+        }
+        return type.getSimpleName();
+    }
+}
@@ -0,0 +1,46 @@
+package mori.java.springboottesting.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "employees.sql.enabled", havingValue = "true")
+@EnableConfigurationProperties(SqlMonitorProperties.class)
+public class SqlMonitorConfig {
+
+    @Bean
+    public SqlMonitor sqlMonitor(SqlMonitorProperties properties) {
+        return new SqlMonitor(properties);
+    }
+
+    //static, and the monitor is looked up only when the DataSource is created, so nothing is initialized early
+    @Bean
+    public static BeanPostProcessor monitoringDataSourcePostProcessor(ObjectProvider<SqlMonitor> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource
+                        ? MonitoringDataSource.wrap(dataSource, monitor.getObject())
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer sqlMonitorWebMvcConfigurer(MeterRegistry meterRegistry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new SqlMonitorInterceptor(meterRegistry));
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package mori.java.springboottesting.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.controller.EmployeeController;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Starts RequestStatements for each request handled by EmployeeController and, once it completes, records its
+// statements, rows and statement time per endpoint and reports a broken @StatementBudget and repeated statements.
+@Slf4j
+public class SqlMonitorInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlMonitorInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method && method.getBeanType() == EmployeeController.class) {
+            StatementBudget budget = method.getMethodAnnotation(StatementBudget.class);
+            RequestStatements.attach(new RequestStatements(endpoint(request),
+                    budget == null ? RequestStatements.NO_BUDGET : budget.value()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestStatements statements = RequestStatements.current();
+        if (statements == null) {
+            return;
+        }
+        RequestStatements.detach();
+        String endpoint = statements.getEndpoint();
+        DistributionSummary.builder("employees.sql.statements")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(statements.getStatements());
+        DistributionSummary.builder("employees.sql.rows")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(statements.getRows());
+        Timer.builder("employees.sql.time")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(statements.getNanos(), TimeUnit.NANOSECONDS);
+        if (statements.isOverBudget()) {
+            meterRegistry.counter("employees.sql.budget.exceeded", "endpoint", endpoint).increment();
+            log.warn("sql_budget_exceeded endpoint=\"{}\" statements={} budget={} rows={} duration_ms={}",
+                    endpoint, statements.getStatements(), statements.getBudget(), statements.getRows(),
+                    TimeUnit.NANOSECONDS.toMillis(statements.getNanos()));
+        }
+        for (RequestStatements.Repeated repeated : statements.getRepeated()) {
+            meterRegistry.counter("employees.sql.repeated", "endpoint", endpoint, "origin", repeated.origin())
+                    .increment();
+            log.warn("sql_repeated_statement endpoint=\"{}\" origin={} executions={} sql=\"{}\"",
+                    endpoint, repeated.origin(), repeated.executions(), repeated.sql());
+        }
+    }
+
+    //the mapping pattern, not the path, so ids do not turn into separate endpoints
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern == null ? request.getRequestURI() : pattern);
+    }
+}
@@ -0,0 +1,31 @@
+package mori.java.springboottesting.sql;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.sql")
+public class SqlMonitorProperties {
+
+    public enum BudgetMode {
+        //report violations in the log and metrics only
+        LOG,
+        //also throw StatementBudgetExceededException from the statement that breaks a budget, for tests and CI
+        FAIL
+    }
+
+    private boolean enabled = true;
+
+    private BudgetMode budgetMode = BudgetMode.LOG;
+
+    //executions of the same SQL text within one request that count as an N+1 pattern
+    private int repeatedStatementThreshold = 5;
+
+    //statements running at least this long are candidates for the slow query log
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+
+    //share of slow statements written to the log, 1.0 logs all of them
+    private double slowQuerySampleRate = 1.0;
+
+}
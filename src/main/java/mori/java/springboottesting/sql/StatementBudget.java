@@ -0,0 +1,14 @@
+package mori.java.springboottesting.sql;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//most SQL statements one request to the annotated handler may execute, checked by SqlMonitorInterceptor
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    int value();
+}
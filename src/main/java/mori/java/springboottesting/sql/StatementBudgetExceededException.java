@@ -0,0 +1,8 @@
+package mori.java.springboottesting.sql;
+
+//thrown in employees.sql.budget-mode=fail only; keeps its stack trace, which shows the code that ran the statement
+public class StatementBudgetExceededException extends RuntimeException {
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
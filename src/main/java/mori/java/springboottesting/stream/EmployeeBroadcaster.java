@@ -0,0 +1,226 @@
+package mori.java.springboottesting.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.event.EmployeeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Fans committed employee changes out to the SSE subscribers of their tenant. Connections are servlet async
+// requests, so an idle subscriber costs its socket and a small queue but no thread; a few dispatch threads
+// write to whichever subscribers have events queued. A subscriber whose queue overflows is disconnected
+// rather than slowing down the others, and can reconnect with Last-Event-ID to catch up from the replay buffer.
+@Slf4j
+@Component
+@EnableConfigurationProperties(EmployeeStreamProperties.class)
+public class EmployeeBroadcaster {
+
+    //event ids are <bootId>-<sequence>, ids from before a restart or from another node cannot be resumed
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final EmployeeStreamProperties properties;
+
+    private final Executor dispatcher;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final StreamEvent[] replay;
+
+    private final Counter dropped;
+
+    private long sequence;
+
+    @Autowired
+    public EmployeeBroadcaster(EmployeeStreamProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Executors.newFixedThreadPool(properties.getDispatchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "employee-stream-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    EmployeeBroadcaster(EmployeeStreamProperties properties, MeterRegistry meterRegistry, Executor dispatcher) {
+        this.properties = properties;
+        this.dispatcher = dispatcher;
+        this.replay = new StreamEvent[properties.getReplaySize()];
+        this.dropped = meterRegistry.counter("employees.stream.dropped.subscribers");
+        Gauge.builder("employees.stream.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    // null when the node is at employees.stream.max-subscribers
+    public SseEmitter subscribe(String tenantId, String lastEventId) {
+        Subscriber subscriber = register(tenantId, lastEventId);
+        return subscriber == null ? null : subscriber.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeEvent(EmployeeEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", event.getId());
+        if (event.getEmployee() != null) {
+            data.put("employee", event.getEmployee());
+        }
+        publish(event.getTenantId(), event.getType().name().toLowerCase(), data);
+    }
+
+    @Scheduled(fixedDelayString = "${employees.stream.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> enqueue(subscriber, StreamEvent.HEARTBEAT));
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (dispatcher instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    synchronized void publish(String tenantId, String name, Object data) {
+        StreamEvent event = new StreamEvent(++sequence, tenantId, name, data);
+        replay[(int) (event.getSequence() % replay.length)] = event;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.tenantId.equals(tenantId)) {
+                enqueue(subscriber, event);
+            }
+        }
+    }
+
+    //registration and replay happen under the publish lock, so no event is missed or delivered twice
+    synchronized Subscriber register(String tenantId, String lastEventId) {
+        if (subscriberCount.get() >= properties.getMaxSubscribers()) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(tenantId, new SseEmitter(properties.getTimeout().toMillis()),
+                new ArrayBlockingQueue<>(properties.getSubscriberBufferSize()));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(error -> remove(subscriber));
+        subscribers.add(subscriber);
+        subscriberCount.incrementAndGet();
+        if (lastEventId != null) {
+            replayAfter(subscriber, lastEventId);
+        }
+        return subscriber;
+    }
+
+    String eventId(long sequence) {
+        return bootId + "-" + sequence;
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void replayAfter(Subscriber subscriber, String lastEventId) {
+        long last = parseSequence(lastEventId);
+        long oldest = Math.max(1, sequence - replay.length + 1);
+        if (last < 0 || last < oldest - 1 || last > sequence) {
+            //too old, from another node or before a restart: the client has to reload the directory
+            enqueue(subscriber, new StreamEvent(sequence, subscriber.tenantId, "reset", Map.of()));
+            return;
+        }
+        for (long next = last + 1; next <= sequence; next++) {
+            StreamEvent event = replay[(int) (next % replay.length)];
+            if (event.getTenantId().equals(subscriber.tenantId)) {
+                enqueue(subscriber, event);
+            }
+        }
+    }
+
+    private long parseSequence(String lastEventId) {
+        int dash = lastEventId.indexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(bootId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, StreamEvent event) {
+        if (!subscriber.queue.offer(event)) {
+            dropped.increment();
+            log.debug("Disconnecting slow stream subscriber of tenant {}", subscriber.tenantId);
+            remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            StreamEvent event;
+            while ((event = subscriber.queue.poll()) != null) {
+                if (event == StreamEvent.HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(eventId(event.getSequence()))
+                            .name(event.getName())
+                            .data(event.getData(), MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            //client went away or the emitter already completed
+            remove(subscriber);
+            subscriber.queue.clear();
+        } finally {
+            subscriber.scheduled.set(false);
+            if (!subscriber.queue.isEmpty() && subscriber.scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    static final class Subscriber {
+
+        private final String tenantId;
+
+        private final SseEmitter emitter;
+
+        final BlockingQueue<StreamEvent> queue;
+
+        //true while a drain of this subscriber is queued or running
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Subscriber(String tenantId, SseEmitter emitter, BlockingQueue<StreamEvent> queue) {
+            this.tenantId = tenantId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
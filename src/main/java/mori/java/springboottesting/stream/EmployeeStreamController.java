@@ -0,0 +1,33 @@
+package mori.java.springboottesting.stream;
+
+import lombok.AllArgsConstructor;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Live feed of the current tenant's employee changes as Server-Sent Events: created, updated, archived and deleted,
+// plus reset when a reconnecting client missed more than the replay buffer holds
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/employees")
+public class EmployeeStreamController {
+
+    private EmployeeBroadcaster broadcaster;
+
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = broadcaster.subscribe(TenantContext.getTenantId(), lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        //stops nginx-style proxies from buffering the stream
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+}
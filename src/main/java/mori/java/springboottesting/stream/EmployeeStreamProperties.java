@@ -0,0 +1,28 @@
+package mori.java.springboottesting.stream;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.stream")
+public class EmployeeStreamProperties {
+
+    //events queued per subscriber, a subscriber that falls this far behind is disconnected
+    private int subscriberBufferSize = 256;
+
+    //recent events kept for clients reconnecting with Last-Event-ID
+    private int replaySize = 10_000;
+
+    private int maxSubscribers = 20_000;
+
+    //threads writing to subscribers, shared by all connections
+    private int dispatchThreads = 4;
+
+    //connections are closed after this long and the client reconnects with its Last-Event-ID
+    private Duration timeout = Duration.ofMinutes(30);
+
+    //comment line sent to idle connections so proxies keep them open and dead ones are found
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
+
+}
@@ -0,0 +1,20 @@
+package mori.java.springboottesting.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+class StreamEvent {
+
+    static final StreamEvent HEARTBEAT = new StreamEvent(0, null, null, null);
+
+    private long sequence;
+
+    private String tenantId;
+
+    //SSE event name: created, updated, archived or deleted
+    private String name;
+
+    private Object data;
+}
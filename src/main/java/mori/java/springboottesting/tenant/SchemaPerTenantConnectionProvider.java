@@ -0,0 +1,61 @@
+package mori.java.springboottesting.tenant;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+
+// Routes each session to its tenant's schema on a connection from the shared pool, and puts the
+// connection back on the default schema before it returns to the pool
+public class SchemaPerTenantConnectionProvider implements MultiTenantConnectionProvider {
+
+    private final DataSource dataSource;
+
+    private final String defaultSchema;
+
+    public SchemaPerTenantConnectionProvider(DataSource dataSource, String defaultSchema) {
+        this.dataSource = dataSource;
+        this.defaultSchema = defaultSchema;
+    }
+
+    @Override
+    public Connection getAnyConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void releaseAnyConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        Connection connection = getAnyConnection();
+        connection.setSchema(TenantContext.DEFAULT_TENANT.equals(tenantIdentifier) ? defaultSchema : tenantIdentifier);
+        return connection;
+    }
+
+    @Override
+    public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        try {
+            connection.setSchema(defaultSchema);
+        } finally {
+            releaseAnyConnection(connection);
+        }
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isInstance(this);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        return unwrapType.cast(this);
+    }
+}
@@ -0,0 +1,21 @@
+package mori.java.springboottesting.tenant;
+
+import javax.sql.DataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TenancyProperties.class)
+public class TenancyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.tenancy.mode", havingValue = "schema")
+    public HibernatePropertiesCustomizer schemaPerTenantCustomizer(DataSource dataSource, TenancyProperties properties) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER,
+                new SchemaPerTenantConnectionProvider(dataSource, properties.getDefaultSchema()));
+    }
+}
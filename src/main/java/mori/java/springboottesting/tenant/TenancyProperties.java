@@ -0,0 +1,21 @@
+package mori.java.springboottesting.tenant;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.tenancy")
+public class TenancyProperties {
+
+    private Mode mode = Mode.DISCRIMINATOR;
+
+    //schema used for the default tenant in SCHEMA mode, other tenants use a schema named after the tenant
+    private String defaultSchema = "public";
+
+    public enum Mode {
+        //one employees table, rows carry tenant_id
+        DISCRIMINATOR,
+        //one schema per tenant, provisioned ahead of time with the employees tables
+        SCHEMA
+    }
+}
@@ -0,0 +1,31 @@
+package mori.java.springboottesting.tenant;
+
+// Tenant of the current request, set by TenantFilter from the X-Tenant-ID header.
+// Work outside a request (jobs, startup) runs as the default tenant unless it sets one.
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String getTenantId() {
+        String tenantId = CURRENT.get();
+        return tenantId == null ? DEFAULT_TENANT : tenantId;
+    }
+
+    public static void setTenantId(String tenantId) {
+        CURRENT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    //tenant-scoped key for caches and in-memory indexes shared by all tenants
+    public static String key(Object value) {
+        return getTenantId() + ":" + value;
+    }
+}
@@ -0,0 +1,147 @@
+package mori.java.springboottesting.tenant;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import mori.java.springboottesting.pool.ConnectionPoolTuner;
+import mori.java.springboottesting.shard.ShardDataSources;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Resolves the tenant from the X-Tenant-ID header and caps the requests each tenant can run at once, so one
+// tenant's large list queries queue behind each other instead of taking every pooled connection
+@Component
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_HEADER = "X-Tenant-ID";
+
+    //also a valid schema name for SCHEMA mode
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9_]{1,63}");
+
+    //any well-formed header creates an entry, so idle tenants are dropped and the count is capped; a request
+    //in flight keeps releasing the permits it took, at worst a dropped busy tenant briefly gets a second set
+    private final Cache<String, TenantPermits> permits;
+
+    private final double maxPoolSharePerTenant;
+
+    private final long acquireTimeoutMillis;
+
+    private final IntSupplier poolSize;
+
+    @Autowired
+    public TenantFilter(@Value("${employees.tenancy.max-pool-share-per-tenant:0.4}") double maxPoolSharePerTenant,
+                        @Value("${employees.tenancy.acquire-timeout-millis:500}") long acquireTimeoutMillis,
+                        @Value("${employees.tenancy.max-tracked-tenants:10000}") long maxTrackedTenants,
+                        ObjectProvider<DataSource> dataSource, ObjectProvider<ShardDataSources> shards,
+                        @Value("${spring.datasource.hikari.maximum-pool-size:10}") int configuredPoolSize) {
+        this(maxPoolSharePerTenant, acquireTimeoutMillis, maxTrackedTenants,
+                livePoolSize(dataSource, shards, configuredPoolSize));
+    }
+
+    //below half of the pool, so two busy tenants still leave connections for the others
+    TenantFilter(double maxPoolSharePerTenant, long acquireTimeoutMillis, long maxTrackedTenants, IntSupplier poolSize) {
+        if (maxPoolSharePerTenant <= 0 || maxPoolSharePerTenant >= 0.5) {
+            throw new IllegalArgumentException("employees.tenancy.max-pool-share-per-tenant (" + maxPoolSharePerTenant
+                    + ") must be above 0 and below 0.5");
+        }
+        this.maxPoolSharePerTenant = maxPoolSharePerTenant;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.poolSize = poolSize;
+        this.permits = Caffeine.newBuilder()
+                .maximumSize(maxTrackedTenants)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    //the smallest maximum size among the live pools, which ConnectionPoolTuner changes at runtime
+    private static IntSupplier livePoolSize(ObjectProvider<DataSource> dataSource, ObjectProvider<ShardDataSources> shards,
+                                            int configuredPoolSize) {
+        SingletonSupplier<List<HikariDataSource>> pools = SingletonSupplier.of(() -> {
+            DataSource pooled = dataSource.getIfAvailable();
+            return pooled == null ? List.of() : ConnectionPoolTuner.hikariPools(pooled, shards.getIfAvailable());
+        });
+        return () -> pools.obtain().stream()
+                .mapToInt(pool -> pool.getHikariConfigMXBean().getMaximumPoolSize())
+                .min()
+                .orElse(configuredPoolSize);
+    }
+
+    //read on every request, so the cap follows the pool when it is resized
+    int maxConcurrentRequestsPerTenant() {
+        return Math.max(1, (int) (poolSize.getAsInt() * maxPoolSharePerTenant));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String tenantId = request.getHeader(TENANT_HEADER);
+        if (tenantId == null || tenantId.isEmpty()) {
+            tenantId = TenantContext.DEFAULT_TENANT;
+        } else if (!TENANT_ID.matcher(tenantId).matches()) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + TENANT_HEADER);
+            return;
+        }
+        TenantPermits tenantPermits = permits.get(tenantId, id -> new TenantPermits());
+        if (!tryAcquire(tenantPermits)) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        TenantContext.setTenantId(tenantId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+            tenantPermits.release();
+        }
+    }
+
+    private boolean tryAcquire(TenantPermits tenantPermits) {
+        try {
+            return tenantPermits.tryAcquire(this::maxConcurrentRequestsPerTenant, acquireTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    //a semaphore whose limit is re-read on every acquire instead of fixed when the tenant is first seen
+    private static final class TenantPermits {
+
+        private int inFlight;
+
+        private synchronized boolean tryAcquire(IntSupplier limit, long timeoutMillis) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (inFlight >= limit.getAsInt()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            inFlight++;
+            return true;
+        }
+
+        private synchronized void release() {
+            inFlight--;
+            notify();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package mori.java.springboottesting.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+// Registered by class name (hibernate.tenant_identifier_resolver) so every EntityManagerFactory,
+// including the test slices, resolves the same tenant
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.getTenantId();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
@@ -0,0 +1,156 @@
+package mori.java.springboottesting.warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.service.EmployeeService;
+import mori.java.springboottesting.tenant.TenantContext;
+import mori.java.springboottesting.tenant.TenantFilter;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+
+// Runs after every other startup step and before the instance reports ready: Boot publishes
+// ReadinessState.ACCEPTING_TRAFFIC (/actuator/health/readiness) only once the application runners returned.
+// Loads the hottest employees recorded by the previous instances through EmployeeService, which fills whichever
+// read caches are on (the employee cache, the Hibernate second-level cache, the stale-read snapshot), then sends
+// reads of them through the local HTTP port so filters, controller and JSON writing are compiled by the JIT.
+// Stops at time-budget whatever is left; a new deployment with no recorded keys starts at once.
+@Slf4j
+//last runner, after the email backfill
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class EmployeeWarmup implements ApplicationRunner {
+
+    private final WarmupProperties properties;
+
+    private final HotKeyStore store;
+
+    private final HotEmployeeKeys hotKeys;
+
+    private final EmployeeService employeeService;
+
+    private final ApplicationContext context;
+
+    private final Clock clock;
+
+    public EmployeeWarmup(WarmupProperties properties, HotKeyStore store, HotEmployeeKeys hotKeys,
+                          EmployeeService employeeService, ApplicationContext context, Clock clock) {
+        this.properties = properties;
+        this.store = store;
+        this.hotKeys = hotKeys;
+        this.employeeService = employeeService;
+        this.context = context;
+        this.clock = clock;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + properties.getTimeBudget().toNanos();
+        try {
+            List<HotKey> keys = loadKeys();
+            if (keys.isEmpty()) {
+                return;
+            }
+            int loaded = loadEmployees(keys, deadline);
+            int requests = sendRequests(keys, deadline);
+            log.info("Warm-up loaded {} of {} hot employees and sent {} requests in {} ms", loaded, keys.size(),
+                    requests, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            hotKeys.startRecording();
+        }
+    }
+
+    private List<HotKey> loadKeys() {
+        try {
+            return store.load(properties.getMaxKeys(), clock.instant().minus(properties.getKeyTtl()));
+        } catch (DataAccessException e) {
+            log.warn("Warm-up skipped, hot employee keys could not be read", e);
+            return List.of();
+        }
+    }
+
+    private int loadEmployees(List<HotKey> keys, long deadline) {
+        AtomicInteger loaded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getThreads());
+        try {
+            for (HotKey key : keys) {
+                executor.execute(() -> {
+                    if (System.nanoTime() - deadline > 0) {
+                        return;
+                    }
+                    TenantContext.setTenantId(key.tenantId());
+                    try {
+                        employeeService.getEmployeeById(key.employeeId());
+                        loaded.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        log.debug("Warm-up could not load employee {}", key, e);
+                    } finally {
+                        TenantContext.clear();
+                    }
+                });
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                log.warn("Warm-up time budget of {} used up while loading employees", properties.getTimeBudget());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return loaded.get();
+    }
+
+    //mostly by-id reads like the traffic that recorded the keys, every tenth one a page of the list
+    private int sendRequests(List<HotKey> keys, long deadline) {
+        if (!(context instanceof WebServerApplicationContext web) || web.getWebServer() == null
+                || web.getWebServer().getPort() <= 0) {
+            return 0;
+        }
+        String base = "http://localhost:" + web.getWebServer().getPort()
+                + context.getEnvironment().getProperty("server.servlet.context-path", "") + "/api/employees";
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        int sent = 0;
+        while (sent < properties.getJitRequests() && System.nanoTime() - deadline < 0) {
+            HotKey key = keys.get(sent % keys.size());
+            String uri = sent % 10 == 9 ? base + "?page=0&size=20" : base + "/" + key.employeeId();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                    .header(TenantFilter.TENANT_HEADER, key.tenantId())
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                log.warn("Warm-up requests stopped after {}", sent, e);
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            sent++;
+        }
+        if (sent < properties.getJitRequests()) {
+            log.warn("Warm-up time budget of {} used up after {} requests", properties.getTimeBudget(), sent);
+        }
+        return sent;
+    }
+}
@@ -0,0 +1,82 @@
+package mori.java.springboottesting.warmup;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Counts reads of employees by id and, every persist interval and on shutdown, writes the most read ones to
+// HotKeyStore, so replicas started by the next deploy know what to warm. Counting starts once this instance's own
+// warm-up is over, its requests are not traffic.
+@Slf4j
+public class HotEmployeeKeys {
+
+    private final HotKeyStore store;
+
+    private final WarmupProperties properties;
+
+    private final Clock clock;
+
+    private final Map<HotKey, LongAdder> counts = new ConcurrentHashMap<>();
+
+    private volatile boolean recording;
+
+    public HotEmployeeKeys(HotKeyStore store, WarmupProperties properties, Clock clock) {
+        this.store = store;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public void record(long employeeId) {
+        if (!recording) {
+            return;
+        }
+        HotKey key = new HotKey(TenantContext.getTenantId(), employeeId);
+        LongAdder count = counts.get(key);
+        if (count == null) {
+            if (counts.size() >= properties.getMaxTrackedKeys()) {
+                return;
+            }
+            count = counts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    void startRecording() {
+        recording = true;
+    }
+
+    @Scheduled(fixedDelayString = "${employees.warmup.persist-interval:PT1M}",
+            initialDelayString = "${employees.warmup.persist-interval:PT1M}")
+    public void persist() {
+        Map<HotKey, Long> hottest = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<HotKey, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(properties.getMaxKeys())
+                .forEach(entry -> hottest.put(entry.getKey(), entry.getValue()));
+        //reads counted while this runs are lost, the counts only need to be roughly right
+        counts.clear();
+        try {
+            if (!hottest.isEmpty()) {
+                store.save(hottest, clock.instant());
+            }
+            store.purge(clock.instant().minus(properties.getKeyTtl()));
+        } catch (DataAccessException e) {
+            //another instance inserted the same key first, or the database is down: this interval is skipped
+            log.warn("Could not persist {} hot employee keys", hottest.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        persist();
+    }
+}
@@ -0,0 +1,4 @@
+package mori.java.springboottesting.warmup;
+
+public record HotKey(String tenantId, long employeeId) {
+}
@@ -0,0 +1,69 @@
+package mori.java.springboottesting.warmup;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// employee_hot_keys, shared by every instance: each one writes its hottest keys, a starting one reads them.
+public class HotKeyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public HotKeyStore(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    //hottest first, only keys written since the given instant
+    public List<HotKey> load(int limit, Instant since) {
+        return readOnlyTransaction.execute(status -> jdbcTemplate.query(
+                "select tenant_id, employee_id from employee_hot_keys where recorded_at >= ? order by hits desc limit ?",
+                (rs, row) -> new HotKey(rs.getString(1), rs.getLong(2)), Timestamp.from(since), limit));
+    }
+
+    //one batch of updates, then one batch of inserts for the keys that had no row
+    public void save(Map<HotKey, Long> hits, Instant recordedAt) {
+        Timestamp timestamp = Timestamp.from(recordedAt);
+        List<HotKey> keys = new ArrayList<>(hits.keySet());
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> updates = new ArrayList<>(keys.size());
+            for (HotKey key : keys) {
+                updates.add(new Object[]{hits.get(key), timestamp, id(key)});
+            }
+            int[] updated = jdbcTemplate.batchUpdate(
+                    "update employee_hot_keys set hits = ?, recorded_at = ? where id = ?", updates);
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                if (updated[i] == 0) {
+                    HotKey key = keys.get(i);
+                    inserts.add(new Object[]{id(key), key.tenantId(), key.employeeId(), hits.get(key), timestamp});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate("insert into employee_hot_keys (id, tenant_id, employee_id, hits, recorded_at)"
+                        + " values (?, ?, ?, ?, ?)", inserts);
+            }
+        });
+    }
+
+    public int purge(Instant before) {
+        return transactionTemplate.execute(status -> jdbcTemplate.update(
+                "delete from employee_hot_keys where recorded_at < ?", Timestamp.from(before)));
+    }
+
+    private static String id(HotKey key) {
+        return key.tenantId() + ":" + key.employeeId();
+    }
+}
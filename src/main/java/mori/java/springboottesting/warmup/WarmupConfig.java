@@ -0,0 +1,33 @@
+package mori.java.springboottesting.warmup;
+
+import java.time.Clock;
+import javax.sql.DataSource;
+import mori.java.springboottesting.service.EmployeeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@ConditionalOnProperty(name = "employees.warmup.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfig {
+
+    @Bean
+    public HotKeyStore hotKeyStore(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        return new HotKeyStore(dataSource, transactionManager);
+    }
+
+    @Bean
+    public HotEmployeeKeys hotEmployeeKeys(HotKeyStore store, WarmupProperties properties) {
+        return new HotEmployeeKeys(store, properties, Clock.systemUTC());
+    }
+
+    @Bean
+    public EmployeeWarmup employeeWarmup(WarmupProperties properties, HotKeyStore store, HotEmployeeKeys hotKeys,
+                                         EmployeeService employeeService, ApplicationContext context) {
+        return new EmployeeWarmup(properties, store, hotKeys, employeeService, context, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,33 @@
+package mori.java.springboottesting.warmup;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "employees.warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    //the instance reports ready after this at the latest, warmed or not
+    private Duration timeBudget = Duration.ofSeconds(30);
+
+    //hottest employees loaded on start and persisted per interval
+    private int maxKeys = 1000;
+
+    //distinct employees counted between persists, reads of others are not counted once it is reached
+    private int maxTrackedKeys = 100_000;
+
+    //parallel loads while warming, each holds a connection
+    private int threads = 4;
+
+    //requests sent through the HTTP stack to compile the read path before traffic arrives
+    private int jitRequests = 2000;
+
+    private Duration persistInterval = Duration.ofMinutes(1);
+
+    //hot keys not written again within this are ignored and purged
+    private Duration keyTtl = Duration.ofHours(24);
+
+}
@@ -0,0 +1,26 @@
+-- Case-insensitive email lookups (PostgreSQL 11+) for databases not managed by spring.jpa.hibernate.ddl-auto=update.
+-- Nothing here takes a lock that blocks writes for longer than one batch: the column is added without a default,
+-- existing rows are backfilled in committed batches and the indexes are built concurrently.
+-- Run with psql outside a transaction (create index concurrently and the commits in the backfill require it).
+-- EmailNormalizationBackfill does the same backfill on application start, so running this ahead is optional.
+
+alter table employees add column if not exists email_normalized varchar(255);
+
+do $$
+declare
+    updated integer;
+begin
+    loop
+        update employees set email_normalized = lower(trim(email))
+        where id in (select id from employees where email_normalized is null order by id limit 10000);
+        get diagnostics updated = row_count;
+        commit;
+        exit when updated = 0;
+    end loop;
+end $$;
+
+create index concurrently if not exists idx_employees_tenant_email_normalized
+    on employees (tenant_id, email_normalized);
+
+-- findByEmail no longer filters on the raw email column
+drop index concurrently if exists idx_employees_tenant_email;
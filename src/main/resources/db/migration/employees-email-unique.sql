@@ -0,0 +1,10 @@
+-- One employee per email and tenant (PostgreSQL 11+), for databases not managed by spring.jpa.hibernate.ddl-auto=update.
+-- Apply after employees-email-normalized.sql, with psql outside a transaction. Building the index fails while
+-- duplicates exist; list them first and resolve them:
+--   select tenant_id, email_normalized, array_agg(id) from employees
+--   where email_normalized is not null group by 1, 2 having count(*) > 1;
+
+create unique index concurrently if not exists uk_employees_tenant_email
+    on employees (tenant_id, email_normalized);
+
+alter table employees add constraint uk_employees_tenant_email unique using index uk_employees_tenant_email;
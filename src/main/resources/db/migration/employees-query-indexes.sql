@@ -0,0 +1,35 @@
+-- Indexes behind the filters and sorts of GET /api/employees (PostgreSQL 11+), for databases not managed by
+-- spring.jpa.hibernate.ddl-auto=update. Apply after employees-email-normalized.sql, with psql outside a transaction.
+-- Each index ends in id so a sort expanded by EmployeeQueryAllowList is read in index order without a sort step.
+
+alter table employees add column if not exists email_domain varchar(255);
+
+do $$
+declare
+    updated integer;
+begin
+    loop
+        update employees
+        set email_normalized = lower(trim(email)),
+            email_domain = substring(lower(trim(email)) from position('@' in lower(trim(email))) + 1)
+        where id in (select id from employees where email_domain is null order by id limit 10000);
+        get diagnostics updated = row_count;
+        commit;
+        exit when updated = 0;
+    end loop;
+end $$;
+
+create index concurrently if not exists idx_employees_tenant_id
+    on employees (tenant_id, id);
+create index concurrently if not exists idx_employees_tenant_email_id
+    on employees (tenant_id, email_normalized, id);
+create index concurrently if not exists idx_employees_tenant_last_name_id
+    on employees (tenant_id, last_name, first_name, id);
+create index concurrently if not exists idx_employees_tenant_first_name_id
+    on employees (tenant_id, first_name, last_name, id);
+create index concurrently if not exists idx_employees_tenant_domain_id
+    on employees (tenant_id, email_domain, email_normalized, id);
+
+-- covered by the prefixes of the indexes above
+drop index concurrently if exists idx_employees_tenant_email_normalized;
+drop index concurrently if exists idx_employees_tenant_name;
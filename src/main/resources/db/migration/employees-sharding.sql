@@ -0,0 +1,18 @@
+-- Global email index for employees.sharding.enabled=true, on the home shard (spring.datasource), for databases not
+-- managed by spring.jpa.hibernate.ddl-auto=update. The other shards only need the application schema.
+-- Sharding does not move rows: existing employees stay reachable only under RANGE sharding with the first
+-- range boundary above select max(id) from employees, so their ids keep mapping to the home shard.
+
+create table if not exists employee_email_index (
+    email_key varchar(255) primary key,
+    employee_id bigint not null
+);
+
+create index if not exists idx_employee_email_index_employee on employee_email_index (employee_id);
+
+-- claims the emails of existing employees under the keys ShardedRepositoryAspect uses
+insert into employee_email_index (email_key, employee_id)
+select concat(tenant_id, ':', coalesce(email_normalized, lower(trim(email)))), min(id)
+from employees
+group by 1
+on conflict do nothing;
@@ -0,0 +1,90 @@
+-- Optional hash-partitioned layout for a very large employees table (PostgreSQL 11+).
+-- Lookups by id (findById, update, delete) are pruned to a single partition, and each
+-- partition is vacuumed independently. Archived rows are moved out by EmployeeArchiveJob
+-- into employees_archive, the cold tier, so the hot partitions only hold active employees;
+-- reads by id fall back to employees_archive, and includeArchived=true lists add it.
+-- Apply the scripts under db/migration first, the columns and indexes below are those of the
+-- Employee entity after them. A partitioned table cannot have an identity column before
+-- PostgreSQL 17, so ids come from a sequence default that continues after the highest id;
+-- with employees.sharding.enabled=true the application assigns them and the default is unused.
+--
+-- A unique index on a partitioned table must contain the partition key, so the one-email-per-tenant
+-- rule is kept by employees_email_keys, filled by a trigger; its primary key carries the name of the
+-- entity's unique constraint, so a duplicate still answers 409. Hibernate cannot add that constraint
+-- to the partitioned table itself: run with spring.jpa.hibernate.ddl-auto=validate or none.
+
+begin;
+
+alter table employees rename to employees_unpartitioned;
+
+create sequence employees_id_seq as bigint;
+select setval('employees_id_seq', coalesce((select max(id) from employees_unpartitioned), 0) + 1, false);
+
+create table employees (
+    id               bigint default nextval('employees_id_seq') not null,
+    first_name       varchar(255) not null,
+    last_name        varchar(255) not null,
+    email            varchar(255) not null,
+    email_normalized varchar(255),
+    email_domain     varchar(255),
+    archived         boolean default false not null,
+    tenant_id        varchar(63) default 'default' not null,
+    primary key (id)
+) partition by hash (id);
+
+create table employees_p0 partition of employees for values with (modulus 8, remainder 0);
+create table employees_p1 partition of employees for values with (modulus 8, remainder 1);
+create table employees_p2 partition of employees for values with (modulus 8, remainder 2);
+create table employees_p3 partition of employees for values with (modulus 8, remainder 3);
+create table employees_p4 partition of employees for values with (modulus 8, remainder 4);
+create table employees_p5 partition of employees for values with (modulus 8, remainder 5);
+create table employees_p6 partition of employees for values with (modulus 8, remainder 6);
+create table employees_p7 partition of employees for values with (modulus 8, remainder 7);
+
+-- the indexes of Employee, created on every partition
+create index idx_employees_tenant_id on employees (tenant_id, id);
+create index idx_employees_tenant_email_id on employees (tenant_id, email_normalized, id);
+create index idx_employees_tenant_last_name_id on employees (tenant_id, last_name, first_name, id);
+create index idx_employees_tenant_first_name_id on employees (tenant_id, first_name, last_name, id);
+create index idx_employees_tenant_domain_id on employees (tenant_id, email_domain, email_normalized, id);
+-- partial index: the archive job and the active-only reads never scan archived rows by table
+create index employees_archived_idx on employees (id) where archived;
+
+create table employees_email_keys (
+    tenant_id        varchar(63) not null,
+    email_normalized varchar(255) not null,
+    employee_id      bigint not null,
+    constraint uk_employees_tenant_email primary key (tenant_id, email_normalized)
+);
+
+create function employees_email_keys_sync() returns trigger language plpgsql as $$
+begin
+    if tg_op in ('UPDATE', 'DELETE') and old.email_normalized is not null then
+        delete from employees_email_keys
+        where tenant_id = old.tenant_id and email_normalized = old.email_normalized and employee_id = old.id;
+    end if;
+    if tg_op in ('INSERT', 'UPDATE') and new.email_normalized is not null then
+        insert into employees_email_keys (tenant_id, email_normalized, employee_id)
+        values (new.tenant_id, new.email_normalized, new.id);
+    end if;
+    return null;
+end $$;
+
+-- the archive job's delete releases the email with the row, as it leaves the unique index of the plain table
+create trigger employees_email_keys_write
+    after insert or delete on employees
+    for each row execute function employees_email_keys_sync();
+create trigger employees_email_keys_update
+    after update of tenant_id, email_normalized on employees
+    for each row
+    when (old.tenant_id is distinct from new.tenant_id or old.email_normalized is distinct from new.email_normalized)
+    execute function employees_email_keys_sync();
+
+insert into employees (id, first_name, last_name, email, email_normalized, email_domain, archived, tenant_id)
+select id, first_name, last_name, email, email_normalized, email_domain, archived, tenant_id
+from employees_unpartitioned;
+
+drop table employees_unpartitioned;
+alter sequence employees_id_seq owned by employees.id;
+
+commit;
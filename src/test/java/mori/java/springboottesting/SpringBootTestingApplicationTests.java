@@ -1,10 +1,14 @@
 package mori.java.springboottesting;
 
+import mori.java.springboottesting.integration.contoller.AbstractContainerBaseTest;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class SpringBootTestingApplicationTests {
+//same configuration as the controller integration tests, so the cached context is reused instead of started again
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+class SpringBootTestingApplicationTests extends AbstractContainerBaseTest {
 
 	@Test
 	void contextLoads() {
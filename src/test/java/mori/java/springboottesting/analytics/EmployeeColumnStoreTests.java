@@ -0,0 +1,61 @@
+package mori.java.springboottesting.analytics;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeColumnStoreTests {
+
+    private final EmployeeColumnStore store = new EmployeeColumnStore(16);
+
+    @DisplayName("Junit test for aggregates over rows spread across several chunks and reallocations")
+    @Test
+    void givenManyRows_whenCounting_thenAggregatesMatch() {
+        //given 300k rows, every 10th archived, half of them in another tenant
+        for (int id = 1; id <= 300_000; id++) {
+            store.upsert(id, id % 2 == 0 ? "default" : "acme", "Last" + (id % 3), "e" + id + "@Domain" + (id % 4) + ".com",
+                    id % 10 == 0);
+        }
+
+        //when
+        long count = store.count("default");
+        List<ValueCount> domains = store.countByEmailDomain("default", 10);
+
+        //then
+        assertEquals(300_000, store.rows());
+        assertEquals(120_000, count);
+        assertEquals(2, domains.size());
+        assertEquals("domain0.com", domains.get(0).getValue());
+        assertEquals(domains.get(0).getCount() + domains.get(1).getCount(), count);
+    }
+
+    @DisplayName("Junit test for updates and deletes being reflected in the aggregates")
+    @Test
+    void givenUpdatedAndRemovedRows_whenCounting_thenOnlyCurrentValuesCount() {
+        //given
+        store.upsert(1, "default", "Java", "mori@java.com", false);
+        store.upsert(2, "default", "Java", "aha@java.com", false);
+        store.upsert(3, "default", "Kotlin", "old@kotlin.org", false);
+
+        //when
+        store.upsert(2, "default", "Scala", "aha@scala.org", false);
+        store.remove(3);
+
+        //then
+        assertEquals(2, store.count("default"));
+        assertEquals(List.of(new ValueCount("Java", 1), new ValueCount("Scala", 1)), store.countByLastName("default", 10));
+        assertEquals(List.of(new ValueCount("java.com", 1)), store.countByEmailDomain("default", 1));
+    }
+
+    @DisplayName("Junit test for an unknown tenant having no rows")
+    @Test
+    void givenUnknownTenant_whenCounting_thenEmpty() {
+        store.upsert(1, "default", "Java", "mori@java.com", false);
+
+        assertEquals(0, store.count("acme"));
+        assertTrue(store.countByLastName("acme", 10).isEmpty());
+    }
+}
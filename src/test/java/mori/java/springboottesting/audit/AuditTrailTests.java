@@ -0,0 +1,79 @@
+package mori.java.springboottesting.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import mori.java.springboottesting.event.EmployeeEvent;
+import mori.java.springboottesting.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditTrailTests {
+
+    private final List<List<AuditRecord>> batches = new CopyOnWriteArrayList<>();
+
+    private final Clock clock = Clock.fixed(Instant.parse("2023-07-01T10:00:00Z"), ZoneOffset.UTC);
+
+    @DisplayName("Junit test for buffered changes being written in batches, in order, and flushed on stop")
+    @Test
+    void givenChanges_whenStopping_thenAllAreWrittenInOrder() {
+        //given
+        AuditTrail trail = new AuditTrail(batch -> batches.add(List.copyOf(batch)), properties(), clock,
+                new SimpleMeterRegistry());
+        trail.start();
+        Employee employee = Employee.builder().id(1L).firstName("Mori").lastName("Java").email("mori@java.com").build();
+
+        //when
+        trail.onEmployeeEvent(new EmployeeEvent(EmployeeEvent.Type.CREATED, 1L, "default", null, employee));
+        employee.setEmail("mori@java.org");
+        trail.onEmployeeEvent(new EmployeeEvent(EmployeeEvent.Type.UPDATED, 1L, "default", null, employee));
+        trail.onEmployeeEvent(new EmployeeEvent(EmployeeEvent.Type.DELETED, 1L, "default", null, null));
+        trail.stop();
+
+        //then
+        List<AuditRecord> written = batches.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(EmployeeEvent.Type.CREATED, EmployeeEvent.Type.UPDATED, EmployeeEvent.Type.DELETED),
+                written.stream().map(AuditRecord::getType).toList());
+        assertEquals("mori@java.com", written.get(0).getAfter().getEmail());
+        assertNull(written.get(2).getAfter());
+        assertTrue(written.stream().allMatch(record -> AuditTrail.SYSTEM_ACTOR.equals(record.getActor())));
+        assertEquals(clock.instant(), written.get(0).getChangedAt());
+    }
+
+    @DisplayName("Junit test for a failing flush being retried")
+    @Test
+    void givenFailingSink_whenFlushing_thenBatchIsRetried() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+        AuditTrail trail = new AuditTrail(batch -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("database down");
+            }
+            batches.add(List.copyOf(batch));
+        }, properties(), clock, new SimpleMeterRegistry());
+        trail.start();
+
+        //when
+        trail.onEmployeeEvent(new EmployeeEvent(EmployeeEvent.Type.DELETED, 2L, "default", null, null));
+        trail.stop();
+
+        //then
+        assertEquals(2, attempts.get());
+        assertEquals(1, batches.stream().mapToInt(List::size).sum());
+    }
+
+    private static AuditProperties properties() {
+        AuditProperties properties = new AuditProperties();
+        properties.setFlushInterval(Duration.ofMillis(10));
+        return properties;
+    }
+}
@@ -0,0 +1,107 @@
+package mori.java.springboottesting.batch;
+
+import java.util.List;
+import java.util.stream.Stream;
+import mori.java.springboottesting.email.EmailFilter;
+import mori.java.springboottesting.model.BatchCheckpoint;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.repository.BatchCheckpointRepository;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import mori.java.springboottesting.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeBatchServiceTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EmailFilter emailFilter;
+
+    @Mock
+    private ObjectProvider<CacheManager> cacheManager;
+
+    @Mock
+    private ObjectProvider<ShardRouter> shardRouter;
+
+    private final EmailNormalizationJob job = new EmailNormalizationJob();
+
+    private EmployeeBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        batchService = new EmployeeBatchService(employeeRepository, checkpointRepository, transactionManager,
+                eventPublisher, emailFilter, cacheManager, shardRouter, List.of(job), 2, 10);
+        //every 10th row starts a chunk -> [1,12) [12,25) [25,max)
+        given(employeeRepository.findChunkStartIds(10)).willReturn(List.of(1L, 12L, 25L));
+    }
+
+    @DisplayName("Junit test for a rerun skipping the chunks checkpointed by an interrupted run")
+    @Test
+    void givenCheckpointedChunk_whenRunning_thenOnlyPendingChunksAreProcessed() {
+        //given
+        given(checkpointRepository.findByJobName(EmailNormalizationJob.NAME))
+                .willReturn(List.of(BatchCheckpoint.builder().rangeStart(12).rangeEnd(25).build()));
+        given(employeeRepository.streamByIdRange(1, 12)).willReturn(Stream.of(
+                Employee.builder().id(1).firstName("Mori").lastName("Java").email(" Mori@JAVA.com").build()));
+        given(employeeRepository.streamByIdRange(25, Long.MAX_VALUE)).willReturn(Stream.of(
+                Employee.builder().id(25).firstName("Aha").lastName("Java").email("aha@java.com").build()));
+
+        //when
+        BatchResult result = batchService.run(EmailNormalizationJob.NAME);
+
+        //then
+        assertEquals(3, result.getChunks());
+        assertEquals(1, result.getResumedChunks());
+        assertEquals(2, result.getProcessed());
+        assertEquals(1, result.getModified());
+        verify(employeeRepository, never()).streamByIdRange(12, 25);
+        verify(checkpointRepository, times(2)).save(any(BatchCheckpoint.class));
+        verify(emailFilter).add("Mori@java.com");
+        verify(checkpointRepository).deleteByJobName(EmailNormalizationJob.NAME);
+    }
+
+    @DisplayName("Junit test for a failing chunk keeping the checkpoints of the others")
+    @Test
+    void givenFailingChunk_whenRunning_thenCheckpointsAreKept() {
+        //given
+        given(checkpointRepository.findByJobName(EmailNormalizationJob.NAME)).willReturn(List.of());
+        given(employeeRepository.streamByIdRange(anyLong(), anyLong()))
+                .willReturn(Stream.of(Employee.builder().id(1).email("mori@java.com").build()))
+                .willThrow(new IllegalStateException("connection lost"))
+                .willReturn(Stream.of(Employee.builder().id(25).email("aha@java.com").build()));
+
+        //when / then
+        assertThrows(IllegalStateException.class, () -> batchService.run(EmailNormalizationJob.NAME));
+        verify(checkpointRepository, times(2)).save(any(BatchCheckpoint.class));
+        verify(checkpointRepository, never()).deleteByJobName(any());
+    }
+}
@@ -0,0 +1,68 @@
+package mori.java.springboottesting.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import mori.java.springboottesting.SpringBootTestingApplication;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Write latency of saveEmployee with and without the audit trail, against in-memory H2.
+// The audit=true score should stay within 5% of audit=false; only the buffer offer is on the request path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class EmployeeAuditOverheadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean audit;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeServiceImpl employeeService;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .properties("spring.datasource.url=jdbc:h2:mem:audit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.show-sql=false",
+                        "employees.audit.enabled=" + audit)
+                .run();
+        employeeService = context.getBean(EmployeeServiceImpl.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        long n = sequence.incrementAndGet();
+        return employeeService.saveEmployee(Employee.builder()
+                .firstName("First" + n)
+                .lastName("Last" + n)
+                .email("employee" + n + "@java.com")
+                .build());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmployeeAuditOverheadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
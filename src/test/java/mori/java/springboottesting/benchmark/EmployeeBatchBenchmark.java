@@ -0,0 +1,103 @@
+package mori.java.springboottesting.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import mori.java.springboottesting.SpringBootTestingApplication;
+import mori.java.springboottesting.batch.BatchResult;
+import mori.java.springboottesting.batch.EmployeeBatchJob;
+import mori.java.springboottesting.batch.EmployeeBatchService;
+import mori.java.springboottesting.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Time for one full pass of a read-only email check over the table at each parallelism level, against in-memory H2.
+// rows / score = rows per second; the H2 numbers show the scaling of the chunking, not PostgreSQL throughput.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeBatchBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"200000"})
+    private int rows;
+
+    @Param({"5000"})
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeBatchService batchService;
+
+    private final LongAdder invalidEmails = new LongAdder();
+
+    private final EmployeeBatchJob validation = new EmployeeBatchJob() {
+        @Override
+        public String name() {
+            return "benchmark-email-validation";
+        }
+
+        @Override
+        public boolean process(Employee employee) {
+            String email = employee.getEmail();
+            int at = email.indexOf('@');
+            if (at <= 0 || email.indexOf('.', at) < 0) {
+                invalidEmails.increment();
+            }
+            return false;
+        }
+    };
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .properties("spring.datasource.url=jdbc:h2:mem:batch;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.hikari.maximum-pool-size=10",
+                        "spring.jpa.show-sql=false",
+                        "employees.email-filter.enabled=false")
+                .run();
+        batchService = context.getBean(EmployeeBatchService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            List<Object[]> batch = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                batch.add(new Object[]{i + 1L, "First" + i, "Last" + i, "employee" + i + "@java.com",
+                        "employee" + i + "@java.com", "java.com"});
+            }
+            jdbcTemplate.batchUpdate("insert into employees (id, first_name, last_name, email, email_normalized, email_domain,"
+                    + " archived, tenant_id) values (?, ?, ?, ?, ?, ?, false, 'default')", batch);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BatchResult fullPass() {
+        return batchService.run(validation, parallelism, chunkSize);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmployeeBatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
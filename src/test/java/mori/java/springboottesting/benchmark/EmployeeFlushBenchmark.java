@@ -0,0 +1,107 @@
+package mori.java.springboottesting.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import mori.java.springboottesting.SpringBootTestingApplication;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Cost of loading 10k employees and flushing them unchanged or all changed, against in-memory H2.
+// load runs read-only, so Hibernate keeps no snapshots and skips the flush: loadAndFlush - load is the dirty check.
+// Compare gc.alloc.rate.norm and the scores of an enhanced build with one built with
+// -Dhibernate.enhance.dirty-tracking=false -Dhibernate.enhance.lazy-initialization=false (after mvn clean).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeFlushBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository repository;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate transaction;
+
+    private long updates;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .properties("spring.datasource.url=jdbc:h2:mem:flush;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+                        "employees.email-filter.enabled=false",
+                        "employees.audit.enabled=false")
+                .run();
+        repository = context.getBean(EmployeeRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        transaction = new TransactionTemplate(transactionManager);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transaction.executeWithoutResult(status -> {
+            List<Object[]> batch = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                batch.add(new Object[]{i + 1L, "First" + i, "Last" + i, "employee" + i + "@java.com",
+                        "employee" + i + "@java.com", "java.com"});
+            }
+            jdbcTemplate.batchUpdate("insert into employees (id, first_name, last_name, email, email_normalized, email_domain,"
+                    + " archived, tenant_id) values (?, ?, ?, ?, ?, ?, false, 'default')", batch);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> load() {
+        return readOnlyTransaction.execute(status -> repository.findAll());
+    }
+
+    @Benchmark
+    public List<Employee> loadAndFlush() {
+        return transaction.execute(status -> repository.findAll());
+    }
+
+    @Benchmark
+    public List<Employee> loadAndUpdate() {
+        String firstName = "First" + updates++;
+        return transaction.execute(status -> {
+            List<Employee> employees = repository.findAll();
+            employees.forEach(employee -> employee.setFirstName(firstName));
+            return employees;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmployeeFlushBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
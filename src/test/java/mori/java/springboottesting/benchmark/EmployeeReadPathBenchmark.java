@@ -0,0 +1,108 @@
+package mori.java.springboottesting.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import mori.java.springboottesting.SpringBootTestingApplication;
+import mori.java.springboottesting.json.EmployeeJdbcReader;
+import mori.java.springboottesting.json.ReadPathProperties;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// One GET /api/employees list body for 10k employees against in-memory H2, written to a discarding stream:
+// entity loads the entities and serializes the list with the application's ObjectMapper, jdbc streams the rows
+// through EmployeeJdbcReader. gc.alloc.rate.norm / rows is the allocation per row of each read path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeReadPathBenchmark {
+
+    @Param({"entity", "jdbc"})
+    private String readPath;
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository repository;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private ObjectMapper mapper;
+
+    private EmployeeJdbcReader reader;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2")
+                .properties("spring.datasource.url=jdbc:h2:mem:read-path;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "employees.email-filter.enabled=false",
+                        "employees.audit.enabled=false")
+                .run();
+        repository = context.getBean(EmployeeRepository.class);
+        mapper = context.getBean(ObjectMapper.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        reader = new EmployeeJdbcReader(context.getBean(DataSource.class), transactionManager, new ReadPathProperties(),
+                null);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Object[]> batch = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                batch.add(new Object[]{i + 1L, "First" + i, "Last" + i, "employee" + i + "@java.com",
+                        "employee" + i + "@java.com", "java.com"});
+            }
+            jdbcTemplate.batchUpdate("insert into employees (id, first_name, last_name, email, email_normalized, email_domain,"
+                    + " archived, tenant_id) values (?, ?, ?, ?, ?, ?, false, 'default')", batch);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void listResponse() throws IOException {
+        OutputStream out = OutputStream.nullOutputStream();
+        if (readPath.equals("entity")) {
+            mapper.writeValue(out, readOnlyTransaction.execute(status -> repository.findByArchivedFalse()));
+            return;
+        }
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            reader.allEmployees(false).writeTo(generator);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmployeeReadPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package mori.java.springboottesting.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import mori.java.springboottesting.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// CPU per list response and bytes on the wire for each format, JSON (reflective) being today's baseline
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"json", "json-blackbird", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"1000"})
+    private int employees;
+
+    private ObjectMapper mapper;
+    private List<Employee> payload;
+
+    @Setup
+    public void setup() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        mapper = new ObjectMapper(factory);
+        if (!format.equals("json")) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        payload = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            payload.add(Employee.builder().id(i).firstName("First" + i).lastName("Last" + i)
+                    .email("employee" + i + "@java.com").build());
+        }
+        System.out.printf("%n%s gzip=%s: %d bytes on the wire for %d employees%n",
+                format, gzip, serialize().length, employees);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return serialize();
+    }
+
+    private byte[] serialize() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * employees);
+        if (gzip) {
+            try (GZIPOutputStream compressed = new GZIPOutputStream(out)) {
+                mapper.writeValue(compressed, payload);
+            }
+        } else {
+            mapper.writeValue(out, payload);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmployeeSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
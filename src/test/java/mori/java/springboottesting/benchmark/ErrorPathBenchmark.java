@@ -0,0 +1,70 @@
+package mori.java.springboottesting.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import mori.java.springboottesting.exception.ApiExceptionHandler;
+import mori.java.springboottesting.exception.EmployeeAlreadyExistsException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Cost of one rejected duplicate create: throw at the depth of a Spring MVC request, catch, render the problem.
+// "stack-trace" is the previous behaviour's exception cost, "lightweight" the one thrown now.
+// Run with -t 8 (or -Dbenchmark="ErrorPath -t 8") to see the contention of stack walking under load.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    @Param({"stack-trace", "lightweight"})
+    private String exception;
+
+    //roughly the frames between a servlet container thread and a service method
+    @Param({"120"})
+    private int depth;
+
+    private final ApiExceptionHandler handler = new ApiExceptionHandler();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Benchmark
+    public byte[] rejectDuplicate() throws JsonProcessingException {
+        try {
+            throwAt(depth);
+            throw new IllegalStateException("not reached");
+        } catch (EmployeeAlreadyExistsException e) {
+            return mapper.writeValueAsBytes(handler.handleAlreadyExists(e));
+        } catch (DuplicateWithStackTrace e) {
+            return mapper.writeValueAsBytes(handler.handleAlreadyExists(
+                    new EmployeeAlreadyExistsException(e.getMessage())));
+        }
+    }
+
+    private void throwAt(int frames) {
+        if (frames > 0) {
+            throwAt(frames - 1);
+            return;
+        }
+        String message = "Employee already exist with given email;mori@java.com";
+        if (exception.equals("stack-trace")) {
+            throw new DuplicateWithStackTrace(message);
+        }
+        throw new EmployeeAlreadyExistsException(message);
+    }
+
+    //the exception as it was thrown before, filling in its stack trace
+    private static class DuplicateWithStackTrace extends RuntimeException {
+        DuplicateWithStackTrace(String message) {
+            super(message);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ErrorPathBenchmark.class.getSimpleName()).build()).run();
+    }
+}
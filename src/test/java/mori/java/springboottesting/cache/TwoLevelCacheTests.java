@@ -0,0 +1,128 @@
+package mori.java.springboottesting.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import mori.java.springboottesting.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TwoLevelCacheTests {
+
+    private MeterRegistry meterRegistry;
+
+    private Cache node1;
+
+    private Cache node2;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        //two replicas sharing the in-process fakes of the shared tier and the invalidation bus
+        SharedCache shared = new InProcessSharedCache();
+        InvalidationBus bus = new LocalInvalidationBus();
+        EmployeeCacheProperties properties = new EmployeeCacheProperties();
+        properties.setMaxStaleness(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        node1 = new TwoLevelCacheManager(shared, bus, properties, meterRegistry).getCache(CacheConfig.EMPLOYEES);
+        node2 = new TwoLevelCacheManager(shared, bus, properties, meterRegistry).getCache(CacheConfig.EMPLOYEES);
+        employee = Employee.builder().id(1L).firstName("Mori").lastName("Java").email("mori@java.com").build();
+    }
+
+    @DisplayName("Junit test for a value cached on one node being served from the shared tier on another")
+    @Test
+    void givenPutOnOneNode_whenGetOnOtherNode_thenSharedTierHit() {
+        //given
+        node1.put(1L, employee);
+
+        //when
+        Object first = node2.get(1L).get();
+        Object second = node2.get(1L).get();
+
+        //then
+        assertSame(employee, first);
+        assertSame(employee, second);
+        assertEquals(1.0, meterRegistry.get("employees.cache.requests")
+                .tags("tier", "shared", "result", "hit").counter().count());
+        assertEquals(0.5, meterRegistry.get("employees.cache.hit.ratio").tags("tier", "near").gauge().value());
+    }
+
+    @DisplayName("Junit test for concurrent misses on one key calling the loader once and filling the shared tier")
+    @Test
+    void givenConcurrentMisses_whenGetWithLoader_thenLoadedOnce() throws Exception {
+        //given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<Employee>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return node1.get(1L, () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(50);
+                    return employee;
+                });
+            }));
+        }
+        start.countDown();
+
+        //then
+        for (Future<Employee> result : results) {
+            assertSame(employee, result.get());
+        }
+        executor.shutdown();
+        assertEquals(1, loads.get());
+        assertSame(employee, node2.get(1L, () -> {
+            loads.incrementAndGet();
+            return employee;
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @DisplayName("Junit test for an eviction on one node invalidating the near cache of the other nodes")
+    @Test
+    void givenCachedOnBothNodes_whenEvictOnOneNode_thenOtherNodeMisses() {
+        //given
+        node1.put(1L, employee);
+        node2.get(1L);
+
+        //when
+        node1.evict(1L);
+
+        //then
+        assertNull(node2.get(1L));
+        assertNull(node1.get(1L));
+    }
+
+    @DisplayName("Junit test for a clear on one node clearing every node")
+    @Test
+    void givenCachedValues_whenClear_thenAllNodesMiss() {
+        //given
+        node1.put(1L, employee);
+        node2.put(2L, employee);
+
+        //when
+        node2.clear();
+
+        //then
+        assertNull(node1.get(1L));
+        assertNull(node1.get(2L));
+    }
+}
@@ -4,29 +4,43 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import mori.java.springboottesting.exception.EmployeeAlreadyExistsException;
+import mori.java.springboottesting.exception.ResourceNotFoundException;
+import mori.java.springboottesting.idempotency.IdempotencyService;
+import mori.java.springboottesting.idempotency.IdempotentResult;
 import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.query.EmployeeFilter;
 import mori.java.springboottesting.service.impl.EmployeeServiceImpl;
 import org.hamcrest.CoreMatchers;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 class EmployeeControllerTests {
 
     @Autowired
@@ -35,6 +49,9 @@ class EmployeeControllerTests {
     @MockBean
     private EmployeeServiceImpl employeeService;
 
+    @MockBean
+    private IdempotencyService idempotencyService;
+
     @Autowired
     private ObjectMapper mapper;
 
@@ -63,6 +80,29 @@ class EmployeeControllerTests {
                 .andExpect(jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
     }
 
+    @DisplayName("Junit test for Create Employee REST API replaying a retried request")
+    @Test
+    void givenRetriedIdempotencyKey_whenCreateEmployee_thenReturnOriginalResponse() throws Exception {
+        //given
+        Employee employee = Employee.builder().firstName("Mori").lastName("Java").email("Mori@Java.com").build();
+        Employee original = Employee.builder().id(7L).firstName("Mori").lastName("Java").email("Mori@Java.com").build();
+        when(idempotencyService.execute(ArgumentMatchers.eq("retry-1"), ArgumentMatchers.any(Employee.class),
+                ArgumentMatchers.any())).thenReturn(new IdempotentResult(original, true));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header(EmployeeController.IDEMPOTENCY_KEY_HEADER, "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(header().string(EmployeeController.IDEMPOTENT_REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id", CoreMatchers.is(7)));
+        verify(employeeService, never()).saveEmployee(ArgumentMatchers.any(Employee.class));
+    }
+
     @DisplayName("Junit test for GetAll Employee REST API")
     @Test
     void givenGetAll_whenGetAllEmployee_thenListAllEmployee() throws Exception {
@@ -72,7 +112,7 @@ class EmployeeControllerTests {
         listOfEmployees.add(Employee.builder().firstName("Behi").lastName("Java").email("Behi@Java.com").build());
 
 
-        when(employeeService.getAllEmployees()).thenReturn(listOfEmployees);
+        when(employeeService.getAllEmployees(false)).thenReturn(listOfEmployees);
 
         //when
         ResultActions response = mockMvc.perform(get("/api/employees"));
@@ -84,6 +124,61 @@ class EmployeeControllerTests {
                 .andExpect(jsonPath("$.size()", CoreMatchers.is(listOfEmployees.size())));
     }
 
+    @DisplayName("Junit test for GetAll Employee REST API with a filter, sort and page")
+    @Test
+    void givenFilterAndSort_whenGetAllEmployee_thenPageOfEmployees() throws Exception {
+        //given
+        Employee employee = Employee.builder().firstName("Mori").lastName("Java").email("Mori@Java.com").build();
+        EmployeeFilter filter = new EmployeeFilter(null, "Java", null);
+        PageRequest pageRequest = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "lastName", "firstName", "id"));
+        when(employeeService.findEmployees(filter, pageRequest))
+                .thenReturn(new PageImpl<>(List.of(employee), pageRequest, 11));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("lastName", "Java")
+                .param("sort", "firstName,desc")
+                .param("page", "1")
+                .param("size", "10"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(EmployeeController.TOTAL_COUNT_HEADER, "11"))
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$[0].firstName", CoreMatchers.is("Mori")));
+    }
+
+    @DisplayName("Junit test for GetAll Employee REST API with a filter combination no index serves")
+    @Test
+    void givenUnindexedFilter_whenGetAllEmployee_thenBadRequestProblem() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("lastName", "Java")
+                .param("emailDomain", "java.com"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", CoreMatchers.is("Unsupported employee query")));
+        verify(employeeService, never()).findEmployees(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @DisplayName("Junit test for GetAll Employee REST API with a page past the reachable rows")
+    @Test
+    void givenDeepPage_whenGetAllEmployee_thenBadRequestProblem() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("page", "1000000")
+                .param("size", "500"));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", CoreMatchers.is("Unsupported employee query")));
+        verify(employeeService, never()).findEmployees(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
     @DisplayName("Junit test for GetEmployeeById REST API")
     @Test
     void givenEmloyeeId_whenGetEmployeeById_thenEmployeeObject() throws Exception {
@@ -129,11 +224,10 @@ class EmployeeControllerTests {
     void givenEmloyeeId_whenUpdateEmloyee_thenUpdatedEmployeeObject() throws Exception {
         //given
         long employeeId = 1L;
-        Employee savedEmployee = Employee.builder().id(employeeId).firstName("Mori").lastName("Java").email("Mori@Java.com").build();
         Employee updatedEmployee = Employee.builder().id(employeeId).firstName("LALA").lastName("HAHA").email("LALA@HAHA.com").build();
 
-        when(employeeService.getEmployeeById(employeeId)).thenReturn(Optional.of(savedEmployee));
-        when(employeeService.updateEmployee(ArgumentMatchers.any(Employee.class))).then(returnsFirstArg());
+        when(employeeService.updateEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(Employee.class)))
+                .thenReturn(Optional.of(updatedEmployee));
         //when
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -152,11 +246,10 @@ class EmployeeControllerTests {
     void givenEmloyeeId_whenUpdateEmloyee_thenEmpty() throws Exception {
         //given
         long employeeId = 1L;
-        Employee savedEmployee = Employee.builder().id(employeeId).firstName("Mori").lastName("Java").email("Mori@Java.com").build();
         Employee updatedEmployee = Employee.builder().id(employeeId).firstName("LALA").lastName("HAHA").email("LALA@HAHA.com").build();
 
-        when(employeeService.getEmployeeById(employeeId)).thenReturn(Optional.empty());
-        when(employeeService.updateEmployee(ArgumentMatchers.any(Employee.class))).then(returnsFirstArg());
+        when(employeeService.updateEmployee(ArgumentMatchers.eq(employeeId), ArgumentMatchers.any(Employee.class)))
+                .thenReturn(Optional.empty());
         //when
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -181,5 +274,59 @@ class EmployeeControllerTests {
                 .andExpect(status().isOk());
     }
 
+    @DisplayName("Junit test for DeleteEmployee REST API with unknown id")
+    @Test
+    void givenUnknownEmloyeeId_whenDeleteEmloyee_thenNotFoundProblem() throws Exception {
+        //given
+        long employeeId = 1L;
+        doThrow(new ResourceNotFoundException("Employee not found with id " + employeeId))
+                .when(employeeService).deleteEmployee(employeeId);
+        //when
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status", CoreMatchers.is(404)))
+                .andExpect(jsonPath("$.detail", CoreMatchers.is("Employee not found with id 1")));
+    }
+
+    @DisplayName("Junit test for Create Employee REST API with an existing email")
+    @Test
+    void givenExistingEmail_whenCreateEmployee_thenConflictProblem() throws Exception {
+        //given
+        Employee employee = Employee.builder().firstName("Mori").lastName("Java").email("Mori@Java.com").build();
+        when(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+                .thenThrow(new EmployeeAlreadyExistsException("Employee already exist with given email;Mori@Java.com"));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.title", CoreMatchers.is("Employee already exists")));
+    }
+
+    @DisplayName("Junit test for a duplicate email rejected by the database answering 409")
+    @Test
+    void givenDuplicateEmailAtCommit_whenCreateEmployee_thenConflict() throws Exception {
+        //given
+        Employee employee = Employee.builder().firstName("Mori").lastName("Java").email("Mori@Java.com").build();
+        when(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new ConstraintViolationException("duplicate key", null, Employee.EMAIL_UNIQUE_CONSTRAINT)));
 
+        //when
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(employee)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.title", CoreMatchers.is("Employee already exists")));
+    }
 }
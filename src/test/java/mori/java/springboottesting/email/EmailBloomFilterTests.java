@@ -0,0 +1,41 @@
+package mori.java.springboottesting.email;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailBloomFilterTests {
+
+    @DisplayName("Junit test for Bloom filter never giving a false negative")
+    @Test
+    void givenInsertedEmails_whenMightContain_thenTrue() {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("employee" + i + "@java.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("employee" + i + "@java.com"));
+        }
+    }
+
+    @DisplayName("Junit test for Bloom filter false-positive rate")
+    @Test
+    void givenNewEmails_whenMightContain_thenFalsePositiveRateNearConfigured() {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("employee" + i + "@java.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("new" + i + "@java.com")) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.sizeInBytes()).isLessThan(16 * 1024);
+    }
+}
@@ -0,0 +1,106 @@
+package mori.java.springboottesting.idempotency;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import mori.java.springboottesting.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyServiceTests {
+
+    private final IdempotencyService service =
+            new IdempotencyService(new InMemoryIdempotencyStore(Duration.ofMinutes(1), 100), 5_000);
+
+    private final Employee request = Employee.builder().firstName("Mori").lastName("Java").email("Mori@Java.com").build();
+
+    private final AtomicInteger saves = new AtomicInteger();
+
+    @DisplayName("Junit test for a retry replaying the stored response without running the create again")
+    @Test
+    void givenCompletedKey_whenRetried_thenStoredResponseIsReplayed() {
+        //given
+        IdempotentResult first = service.execute("key-1", request, this::save);
+
+        //when
+        IdempotentResult retry = service.execute("key-1", request, this::save);
+
+        //then
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertSame(first.getBody(), retry.getBody());
+        assertEquals(1, saves.get());
+    }
+
+    @DisplayName("Junit test for a concurrent duplicate waiting for the request holding the key")
+    @Test
+    void givenKeyInFlight_whenDuplicateArrives_thenItWaitsForTheFirstResponse() throws Exception {
+        //given a first request blocked inside its create
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<IdempotentResult> first = CompletableFuture.supplyAsync(() -> service.execute("key-2", request, () -> {
+            creating.countDown();
+            await(finish);
+            return save();
+        }));
+        assertTrue(creating.await(5, TimeUnit.SECONDS));
+
+        //when
+        CompletableFuture<IdempotentResult> duplicate = CompletableFuture.supplyAsync(() -> service.execute("key-2", request, this::save));
+        finish.countDown();
+
+        //then
+        assertSame(first.get(5, TimeUnit.SECONDS).getBody(), duplicate.get(5, TimeUnit.SECONDS).getBody());
+        assertTrue(duplicate.get().isReplayed());
+        assertEquals(1, saves.get());
+    }
+
+    @DisplayName("Junit test for a key reused with a different body being rejected")
+    @Test
+    void givenCompletedKey_whenReusedForAnotherEmployee_thenRejected() {
+        //given
+        service.execute("key-3", request, this::save);
+        Employee other = Employee.builder().firstName("Aha").lastName("Java").email("aha@java.com").build();
+
+        //when / then
+        assertThrows(IdempotencyKeyReusedException.class, () -> service.execute("key-3", other, this::save));
+        assertEquals(1, saves.get());
+    }
+
+    @DisplayName("Junit test for a failed request not being stored")
+    @Test
+    void givenFailedCreate_whenRetried_thenCreateRunsAgain() {
+        //given
+        assertThrows(IllegalStateException.class, () -> service.execute("key-4", request, () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        //when
+        IdempotentResult retry = service.execute("key-4", request, this::save);
+
+        //then
+        assertFalse(retry.isReplayed());
+        assertEquals(1, saves.get());
+    }
+
+    private Employee save() {
+        return Employee.builder().id(saves.incrementAndGet()).firstName(request.getFirstName())
+                .lastName(request.getLastName()).email(request.getEmail()).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,17 +6,32 @@ import org.testcontainers.containers.PostgreSQLContainer;
 
 public abstract class AbstractContainerBaseTest {
 
+    //mvn -Pfast test: one in-memory H2 database in PostgreSQL mode shared by the test JVM, no Docker needed
+    protected static final boolean FAST_MODE = "h2".equals(System.getProperty("test.database"));
+
     public static PostgreSQLContainer<?> postgresqlContainer;
 
     static {
-        postgresqlContainer = new PostgreSQLContainer<>();
-        postgresqlContainer.start();
+        if (!FAST_MODE) {
+            postgresqlContainer = new PostgreSQLContainer<>();
+            postgresqlContainer.start();
+        }
     }
 
     @DynamicPropertySource
     static void postgresqlProperties(DynamicPropertyRegistry registry) {
+        if (FAST_MODE) {
+            registry.add("spring.datasource.url",
+                    () -> "jdbc:h2:mem:employees;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+            registry.add("spring.datasource.username", () -> "sa");
+            registry.add("spring.datasource.password", () -> "");
+            //same as the h2 profile in src/test/resources, profiles cannot be switched from here
+            registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+            registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.H2Dialect");
+            return;
+        }
         registry.add("spring.datasource.url", postgresqlContainer::getJdbcUrl);
         registry.add("spring.datasource.username", postgresqlContainer::getUsername);
         registry.add("spring.datasource.password", postgresqlContainer::getPassword);
     }
-}
\ No newline at end of file
+}
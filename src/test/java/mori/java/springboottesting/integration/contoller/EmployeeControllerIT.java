@@ -6,7 +6,6 @@ import java.util.List;
 import mori.java.springboottesting.model.Employee;
 import mori.java.springboottesting.repository.EmployeeRepository;
 import org.hamcrest.CoreMatchers;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +14,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -23,6 +23,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@Transactional
 class EmployeeControllerIT extends AbstractContainerBaseTest {
 
     @Autowired
@@ -35,12 +36,6 @@ class EmployeeControllerIT extends AbstractContainerBaseTest {
     private ObjectMapper mapper;
 
 
-    @BeforeEach
-    void setup() {
-
-        repository.deleteAll();
-    }
-
     @DisplayName("Integration test for Create Employee REST API")
     @Test
     void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() throws Exception {
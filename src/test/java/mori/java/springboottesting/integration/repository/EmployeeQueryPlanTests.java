@@ -0,0 +1,164 @@
+package mori.java.springboottesting.integration.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import mori.java.springboottesting.integration.contoller.AbstractContainerBaseTest;
+import mori.java.springboottesting.query.EmployeeFilter;
+import mori.java.springboottesting.query.EmployeeQueryAllowList;
+import mori.java.springboottesting.query.EmployeeSpecifications;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+// Asks PostgreSQL how it runs the SQL Hibernate generates for every filter and sort in EmployeeQueryAllowList.
+// Sequential scans and sorts are switched off for the session, so a plan that still contains one means no index
+// serves that combination; the tables can stay empty. The tenant has to be part of the index range, a filter on
+// tenant_id would mean the scan reads and drops the rows of every other tenant.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "mori.java.springboottesting.integration.repository.EmployeeQueryPlanTests$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EmployeeQueryPlanTests extends AbstractContainerBaseTest {
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setup() {
+        assumeFalse(FAST_MODE, "plans are only checked on PostgreSQL");
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @DisplayName("Integration test for every allowed filter and sort being answered from an index in order")
+    @Test
+    void givenAllowedQuery_whenExplained_thenIndexScanWithoutSort() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("set local enable_seqscan = off");
+        jdbcTemplate.execute("set local enable_sort = off");
+        List<String> checked = new ArrayList<>();
+
+        for (Set<String> filters : EmployeeQueryAllowList.filterCombinations()) {
+            EmployeeFilter filter = filter(filters);
+            for (String sort : EmployeeQueryAllowList.sorts(filters)) {
+                for (String direction : List.of("asc", "desc")) {
+                    //when
+                    String sql = select(filter, sort + "," + direction);
+                    String plan = explain(jdbcTemplate, sql);
+
+                    //then
+                    String query = filters + " sorted by " + sort + " " + direction + ":\n" + sql + "\n" + plan;
+                    assertThat(plan).as(query).doesNotContain("Sort");
+                    assertTenantSeek(plan, query);
+                    checked.add(query);
+                }
+            }
+        }
+        assertThat(checked).hasSizeGreaterThanOrEqualTo(2 * EmployeeQueryAllowList.filterCombinations().size());
+    }
+
+    @DisplayName("Integration test for the X-Total-Count of every allowed filter being counted over the tenant's index range")
+    @Test
+    void givenAllowedFilter_whenCountExplained_thenTenantIndexRange() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("set local enable_seqscan = off");
+
+        for (Set<String> filters : EmployeeQueryAllowList.filterCombinations()) {
+            //when
+            String sql = count(filter(filters));
+            String plan = explain(jdbcTemplate, sql);
+
+            //then
+            assertTenantSeek(plan, filters + " counted:\n" + sql + "\n" + plan);
+        }
+    }
+
+    private static void assertTenantSeek(String plan, String query) {
+        assertThat(plan).as(query).contains("Index").doesNotContain("Seq Scan");
+        assertThat(plan.lines().filter(line -> line.contains("Index Cond:")))
+                .as(query).anyMatch(line -> line.contains("tenant_id"));
+        assertThat(plan.lines().filter(line -> line.contains("Filter:")))
+                .as(query).noneMatch(line -> line.contains("tenant_id"));
+    }
+
+    private String select(EmployeeFilter filter, String sort) {
+        CapturingInspector.STATEMENTS.clear();
+        employeeRepository.findAll(EmployeeSpecifications.matching(filter),
+                EmployeeQueryAllowList.pageRequest(filter, sort, 0, 10));
+        return CapturingInspector.STATEMENTS.stream()
+                .filter(statement -> statement.contains("order by"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private String count(EmployeeFilter filter) {
+        CapturingInspector.STATEMENTS.clear();
+        employeeRepository.count(EmployeeSpecifications.matching(filter));
+        return CapturingInspector.STATEMENTS.stream()
+                .filter(statement -> statement.contains("count("))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    //prepares the statement so PostgreSQL infers the parameter types, then explains it with a value of each type
+    private String explain(JdbcTemplate jdbcTemplate, String sql) {
+        Matcher matcher = PARAMETER.matcher(sql);
+        StringBuilder positional = new StringBuilder();
+        int parameters = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(positional, "\\$" + ++parameters);
+        }
+        matcher.appendTail(positional);
+        jdbcTemplate.execute("prepare employee_query as " + positional);
+        try {
+            String types = jdbcTemplate.queryForObject(
+                    "select parameter_types::text from pg_prepared_statements where name = 'employee_query'", String.class);
+            List<String> values = new ArrayList<>();
+            for (String type : types.substring(1, types.length() - 1).split(",")) {
+                if (type.isEmpty()) {
+                    continue;
+                }
+                values.add(type.contains("int") ? "10" : type.equals("boolean") ? "false" : "'x'");
+            }
+            String execute = values.isEmpty() ? "employee_query" : "employee_query(" + String.join(", ", values) + ")";
+            return String.join("\n", jdbcTemplate.queryForList("explain execute " + execute, String.class));
+        } finally {
+            jdbcTemplate.execute("deallocate employee_query");
+        }
+    }
+
+    private static EmployeeFilter filter(Set<String> filters) {
+        return new EmployeeFilter(
+                filters.contains(EmployeeFilter.FIRST_NAME) ? "x" : null,
+                filters.contains(EmployeeFilter.LAST_NAME) ? "x" : null,
+                filters.contains(EmployeeFilter.EMAIL_DOMAIN) ? "x" : null);
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
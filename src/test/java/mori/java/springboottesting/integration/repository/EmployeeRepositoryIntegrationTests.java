@@ -27,7 +27,6 @@ class EmployeeRepositoryIntegrationTests extends AbstractContainerBaseTest {
 
     @BeforeEach
     void setup() {
-        employeeRepository.deleteAll();
         employee = Employee.builder()
                 .firstName("Mori")
                 .lastName("Java")
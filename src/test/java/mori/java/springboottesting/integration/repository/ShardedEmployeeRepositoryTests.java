@@ -0,0 +1,205 @@
+package mori.java.springboottesting.integration.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.sql.DataSource;
+import mori.java.springboottesting.exception.EmployeeAlreadyExistsException;
+import mori.java.springboottesting.integration.DatabaseCleaner;
+import mori.java.springboottesting.json.EmployeeJdbcReader;
+import mori.java.springboottesting.json.ReadPathProperties;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.query.EmployeeQueryAllowList;
+import mori.java.springboottesting.query.InvalidEmployeeQueryException;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import mori.java.springboottesting.service.impl.EmployeeServiceImpl;
+import mori.java.springboottesting.shard.ShardDataSources;
+import mori.java.springboottesting.shard.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Three embedded H2 databases as shards, no Docker needed; ddl-auto creates the schema on all of them.
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ShardedEmployeeRepositoryTests.SHARD_0,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "employees.sharding.enabled=true",
+        "employees.ids.worker-id=1",
+        "employees.sharding.shards[0].url=" + ShardedEmployeeRepositoryTests.SHARD_1,
+        "employees.sharding.shards[0].username=sa",
+        "employees.sharding.shards[1].url=" + ShardedEmployeeRepositoryTests.SHARD_2,
+        "employees.sharding.shards[1].username=sa"
+})
+@ActiveProfiles("h2")
+class ShardedEmployeeRepositoryTests {
+
+    private static final String H2 = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    static final String SHARD_0 = "jdbc:h2:mem:employees-shard-0" + H2;
+
+    static final String SHARD_1 = "jdbc:h2:mem:employees-shard-1" + H2;
+
+    static final String SHARD_2 = "jdbc:h2:mem:employees-shard-2" + H2;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeServiceImpl employeeService;
+
+    @Autowired
+    private ShardDataSources shards;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void cleanup() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            new DatabaseCleaner(shards.get(shard)).truncateAll();
+        }
+    }
+
+    @DisplayName("Integration test for employees being stored on the shard of their id and found by id")
+    @Test
+    void givenSavedEmployees_whenFindById_thenEachIsOnItsShard() {
+        //given
+        List<Employee> saved = saveEmployees(30);
+
+        //when / then
+        int[] expected = new int[shards.size()];
+        for (Employee employee : saved) {
+            expected[router.shardFor(employee.getId())]++;
+            assertThat(employeeRepository.findById(employee.getId())).contains(employee);
+        }
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Integer rows = new JdbcTemplate(shards.get(shard)).queryForObject("select count(*) from employees",
+                    Integer.class);
+            assertEquals(expected[shard], rows);
+            assertThat(rows).isPositive();
+        }
+        assertEquals(30, employeeRepository.count());
+    }
+
+    @DisplayName("Integration test for a page sorted across shards matching the page of all employees")
+    @Test
+    void givenEmployeesOnAllShards_whenFindAllPage_thenMergedInOrder() {
+        //given
+        List<Employee> saved = new ArrayList<>(saveEmployees(30));
+        saved.sort(Comparator.comparing(Employee::getLastName).thenComparing(Employee::getId));
+
+        //when
+        Page<Employee> page = employeeRepository.findAll(PageRequest.of(2, 5, Sort.by("lastName", "id")));
+
+        //then
+        assertEquals(30, page.getTotalElements());
+        assertEquals(saved.subList(10, 15), page.getContent());
+    }
+
+    @DisplayName("Integration test for a page across shards past the result window being refused before any shard is read")
+    @Test
+    void givenDeepPage_whenFindAllPage_thenRejected() {
+        //when / then
+        assertThrows(InvalidEmployeeQueryException.class, () -> employeeRepository.findAll(
+                PageRequest.of(1_000_000, EmployeeQueryAllowList.MAX_PAGE_SIZE, Sort.by("id"))));
+    }
+
+    @DisplayName("Integration test for email and name lookups fanning out to every shard")
+    @Test
+    void givenEmployeesOnAllShards_whenFindByEmailAndName_thenFound() {
+        //given
+        List<Employee> saved = saveEmployees(10);
+
+        //when / then
+        for (Employee employee : saved) {
+            assertThat(employeeRepository.findByEmail(employee.getEmail().toUpperCase())).contains(employee);
+            assertEquals(employee, employeeRepository.findByJPQL(employee.getFirstName(), employee.getLastName()));
+        }
+        assertThat(employeeRepository.findByEmail("nobody@java.com")).isEmpty();
+    }
+
+    @DisplayName("Integration test for an email being unique across shards until its employee is deleted")
+    @Test
+    void givenEmailTaken_whenSavedOrUpdatedAgain_thenConflictUntilDeleted() {
+        //given
+        Employee mori = employeeService.saveEmployee(employee("Mori", "mori@java.com"));
+        Employee behi = employeeService.saveEmployee(employee("Behi", "behi@java.com"));
+
+        //when / then
+        assertThrows(EmployeeAlreadyExistsException.class,
+                () -> employeeRepository.save(employee("Other", " MORI@java.com")));
+        assertThrows(EmployeeAlreadyExistsException.class,
+                () -> employeeService.updateEmployee(behi.getId(), employee("Behi", "mori@java.com")));
+
+        employeeService.deleteEmployee(mori.getId());
+        Employee updated = employeeService.updateEmployee(behi.getId(), employee("Behi", "mori@java.com")).orElseThrow();
+        assertEquals("mori@java.com", updated.getEmail());
+        //behi's old email was released by the update
+        assertThat(employeeService.saveEmployee(employee("New", "behi@java.com")).getId()).isPositive();
+    }
+
+    @DisplayName("Integration test for the JDBC read path listing every shard and reading by id from the id's shard")
+    @Test
+    void givenEmployeesOnAllShards_whenReadThroughJdbc_thenAllFound() throws Exception {
+        //given
+        List<Employee> saved = saveEmployees(12);
+        EmployeeJdbcReader reader = new EmployeeJdbcReader(dataSource, transactionManager, new ReadPathProperties(),
+                router);
+
+        //when
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            reader.allEmployees(false).writeTo(generator);
+        }
+
+        //then
+        JsonNode employees = objectMapper.readTree(json.toString());
+        assertEquals(12, employees.size());
+        for (Employee employee : saved) {
+            assertThat(reader.findById(employee.getId())).hasValueSatisfying(
+                    view -> assertEquals(employee.getEmail(), view.email()));
+        }
+    }
+
+    private List<Employee> saveEmployees(int count) {
+        List<Employee> saved = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            saved.add(employeeRepository.save(employee("First" + i, "employee" + i + "@java.com")));
+        }
+        return saved;
+    }
+
+    private static Employee employee(String firstName, String email) {
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName("Last" + (email.hashCode() & 7))
+                .email(email)
+                .build();
+    }
+}
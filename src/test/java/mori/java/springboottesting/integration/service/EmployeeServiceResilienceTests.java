@@ -0,0 +1,96 @@
+package mori.java.springboottesting.integration.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import java.util.Optional;
+import mori.java.springboottesting.cache.CacheConfig;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Its own in-memory database, the table is taken away while a test runs. The cache is on, as the advice chain
+// of getEmployeeById is cache, then @ResilientRead, then the transaction.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:employees-resilience;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "employees.resilience.enabled=true",
+        "employees.cache.enabled=true"
+})
+@ActiveProfiles("h2")
+class EmployeeServiceResilienceTests {
+
+    @Autowired
+    private EmployeeServiceImpl employeeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DisplayName("Integration test for a read through the transactional service being served from the snapshot when the database fails")
+    @Test
+    void givenReadOnce_whenDatabaseFails_thenLastKnownGoodServed() {
+        //given
+        Employee saved = employeeService.saveEmployee(Employee.builder()
+                .firstName("Mori")
+                .lastName("Java")
+                .email("mori@java.com")
+                .build());
+        Optional<Employee> read = employeeService.getEmployeeById(saved.getId());
+        cacheManager.getCache(CacheConfig.EMPLOYEES).evict(saved.getId());
+
+        //when
+        jdbcTemplate.execute("alter table employees rename to employees_unavailable");
+        Optional<Employee> fallback;
+        try {
+            fallback = employeeService.getEmployeeById(saved.getId());
+        } finally {
+            jdbcTemplate.execute("alter table employees_unavailable rename to employees");
+        }
+
+        //then the advice ran outside the service's transaction, so the failure was caught instead of thrown
+        assertEquals(read, fallback);
+        assertEquals("mori@java.com", fallback.orElseThrow().getEmail());
+    }
+
+    @DisplayName("Integration test for a cached read being answered on the request thread without the resilience advice")
+    @Test
+    void givenCachedEmployee_whenReadAgain_thenNoWorkerCall() {
+        //given
+        Employee saved = employeeService.saveEmployee(Employee.builder()
+                .firstName("Cached")
+                .lastName("Java")
+                .email("cached@java.com")
+                .build());
+        Optional<Employee> read = employeeService.getEmployeeById(saved.getId());
+        double resilientCalls = resilientCalls();
+        assertTrue(resilientCalls > 0);
+
+        //when
+        Optional<Employee> cached = employeeService.getEmployeeById(saved.getId());
+
+        //then
+        assertEquals(read, cached);
+        assertEquals(resilientCalls, resilientCalls());
+    }
+
+    //every outcome of a read that went through ResilientReadAspect
+    private double resilientCalls() {
+        return Search.in(meterRegistry).name("employees.resilience.calls").tag("method", "getEmployeeById")
+                .counters().stream().mapToDouble(counter -> counter.count()).sum();
+    }
+}
@@ -0,0 +1,117 @@
+package mori.java.springboottesting.integration.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import mori.java.springboottesting.exception.ResourceNotFoundException;
+import mori.java.springboottesting.integration.DatabaseCleaner;
+import mori.java.springboottesting.integration.contoller.AbstractContainerBaseTest;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import mori.java.springboottesting.service.impl.EmployeeServiceImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Fails the build when a service call needs more than one connection checkout or more statements than it should.
+// Service calls commit and statistics are global, so this class never runs next to other test classes.
+@Isolated
+//the audit writer flushes on its own connection and would show up in the global statistics
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true", "employees.audit.enabled=false"})
+class EmployeeServiceStatementTests extends AbstractContainerBaseTest {
+
+    @Autowired
+    private EmployeeServiceImpl employeeService;
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Statistics statistics;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = repository.save(Employee.builder()
+                .firstName("Mori")
+                .lastName("Java")
+                .email("mori" + System.nanoTime() + "@java.com")
+                .build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        new DatabaseCleaner(dataSource).truncateAll();
+    }
+
+    @DisplayName("Statement budget for saveEmployee")
+    @Test
+    void saveEmployee() {
+        Employee newEmployee = Employee.builder()
+                .firstName("Behi")
+                .lastName("Java")
+                .email("behi" + System.nanoTime() + "@java.com")
+                .build();
+
+        //the duplicate lookup only runs on a Bloom filter false positive
+        assertCost(1, 2, () -> employeeService.saveEmployee(newEmployee));
+    }
+
+    @DisplayName("Statement budget for getEmployeeById")
+    @Test
+    void getEmployeeById() {
+        assertCost(1, 1, () -> employeeService.getEmployeeById(employee.getId()));
+    }
+
+    @DisplayName("Statement budget for getAllEmployees")
+    @Test
+    void getAllEmployees() {
+        assertCost(1, 1, () -> employeeService.getAllEmployees());
+        assertCost(1, 2, () -> employeeService.getAllEmployees(true));
+    }
+
+    @DisplayName("Statement budget for updateEmployee by id")
+    @Test
+    void updateEmployee() {
+        Employee changes = Employee.builder().firstName("LALA").lastName("HAHA").email(employee.getEmail()).build();
+
+        assertCost(1, 2, () -> employeeService.updateEmployee(employee.getId(), changes));
+    }
+
+    @DisplayName("Statement budget for deleteEmployee")
+    @Test
+    void deleteEmployee() {
+        assertCost(1, 1, () -> employeeService.deleteEmployee(employee.getId()));
+    }
+
+    @DisplayName("Statement budget for deleteEmployee with an unknown id")
+    @Test
+    void deleteMissingEmployee() {
+        assertCost(1, 1, () -> assertThrows(ResourceNotFoundException.class,
+                () -> employeeService.deleteEmployee(employee.getId() + 1000)));
+    }
+
+    private void assertCost(long connections, long maxStatements, Runnable serviceCall) {
+        statistics.clear();
+
+        serviceCall.run();
+
+        assertThat(statistics.getConnectCount()).as("connection acquisitions").isEqualTo(connections);
+        assertThat(statistics.getPrepareStatementCount()).as("statements").isLessThanOrEqualTo(maxStatements);
+    }
+}
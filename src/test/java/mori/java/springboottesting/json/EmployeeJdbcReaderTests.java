@@ -0,0 +1,101 @@
+package mori.java.springboottesting.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeJdbcReaderTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private EmployeeJdbcReader reader;
+
+    @BeforeEach
+    void setup() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:read-path;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table employees (id bigint primary key, first_name varchar(255),"
+                + " last_name varchar(255), email varchar(255), archived boolean, tenant_id varchar(63))");
+        jdbcTemplate.execute("create table employees_archive (id bigint primary key, first_name varchar(255),"
+                + " last_name varchar(255), email varchar(255), tenant_id varchar(63))");
+        jdbcTemplate.update("insert into employees values (1, 'Mori', 'Java', 'mori@java.com', false, 'default')");
+        jdbcTemplate.update("insert into employees values (2, 'Behi', 'Ja\"va', 'behi@java.com', false, 'default')");
+        jdbcTemplate.update("insert into employees values (3, 'Other', 'Tenant', 'other@java.com', false, 'acme')");
+        jdbcTemplate.update("insert into employees_archive values (4, 'Old', 'Java', 'old@java.com', 'default')");
+        reader = new EmployeeJdbcReader(dataSource, new DataSourceTransactionManager(dataSource), new ReadPathProperties(),
+                null);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("drop table employees");
+        jdbcTemplate.execute("drop table employees_archive");
+        TenantContext.clear();
+    }
+
+    @DisplayName("Junit test for streamed rows being the same JSON Jackson writes for the entities")
+    @Test
+    void givenEmployees_whenStreamed_thenSameJsonAsEntities() throws IOException {
+        //given
+        List<Employee> entities = List.of(
+                Employee.builder().id(1).firstName("Mori").lastName("Java").email("mori@java.com").build(),
+                Employee.builder().id(2).firstName("Behi").lastName("Ja\"va").email("behi@java.com").build(),
+                Employee.builder().id(4).firstName("Old").lastName("Java").email("old@java.com").archived(true).build());
+
+        //when
+        String json = write(reader.allEmployees(true));
+
+        //then
+        assertEquals(mapper.readTree(mapper.writeValueAsString(entities)), mapper.readTree(json));
+    }
+
+    @DisplayName("Junit test for the list holding the current tenant's active employees only")
+    @Test
+    void givenTenant_whenStreamed_thenOnlyItsActiveEmployees() throws IOException {
+        //given
+        TenantContext.setTenantId("acme");
+
+        //when
+        String json = write(reader.allEmployees(false));
+
+        //then
+        assertEquals(1, mapper.readTree(json).size());
+        assertEquals("Other", mapper.readTree(json).get(0).get("firstName").asText());
+    }
+
+    @DisplayName("Junit test for by-id reads returning the employee record")
+    @Test
+    void givenId_whenFindById_thenRecord() {
+        //when - then
+        assertEquals(new EmployeeView(1, "Mori", "Java", "mori@java.com", false), reader.findById(1).orElseThrow());
+        assertEquals(new EmployeeView(4, "Old", "Java", "old@java.com", true), reader.findById(4).orElseThrow());
+        assertTrue(reader.findById(3).isEmpty());
+    }
+
+    private String write(EmployeeJsonBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            body.writeTo(generator);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,69 @@
+package mori.java.springboottesting.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import mori.java.springboottesting.integration.contoller.AbstractContainerBaseTest;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// mvn -Pload-test verify [-Dload.workloads=read-heavy,search -Dload.rate=500 -Dload.gate=false]
+// server comparison: -Dload.workloads=by-id -Dload.gate=false -Dload.spring-profiles=performance
+//     -Dload.http-version=HTTP_2 -Dembedded.server=undertow -Dload.label=undertow-h2
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EmployeeApiLoadIT extends AbstractContainerBaseTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    private LoadProfile profile;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void seed() {
+        profile = LoadProfile.fromSystemProperties();
+        repository.deleteAllInBatch();
+        List<Employee> employees = new ArrayList<>(profile.seedEmployees());
+        for (int i = 0; i < profile.seedEmployees(); i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + (i % 100))
+                    .email("seed" + i + "@java.com")
+                    .build());
+        }
+        ids = repository.saveAll(employees).stream().map(Employee::getId).toList();
+    }
+
+    @DisplayName("Load test for the employee REST API")
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(Workload.class)
+    void workload(Workload workload) throws Exception {
+        String selected = System.getProperty("load.workloads", "");
+        assumeTrue(selected.isEmpty() || List.of(selected.split(",")).contains(workload.key()));
+
+        OpenModelLoadGenerator.Result result =
+                new OpenModelLoadGenerator("http://localhost:" + port, ids, profile.httpVersion()).run(workload, profile);
+
+        LatencyReport report = new LatencyReport();
+        report.write(result, profile.label());
+        Double baseline = report.baselineP99Millis(workload);
+        if (profile.gate() && baseline != null) {
+            assertThat(result.p99Millis())
+                    .as("p99 of %s against baseline %.2fms", workload.key(), baseline)
+                    .isLessThanOrEqualTo(baseline * (1 + profile.p99Tolerance()));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package mori.java.springboottesting.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import org.HdrHistogram.Histogram;
+
+// Writes HdrHistogram percentile distributions (.hgrm, plottable with HdrHistogram's plotter) and compares
+// p99 with the stored baseline in src/test/resources/load/baseline.properties
+class LatencyReport {
+
+    private static final Path REPORT_DIR = Path.of("target", "load-reports");
+
+    private final Properties baseline = new Properties();
+
+    private final Properties measured = new Properties();
+
+    LatencyReport() throws IOException {
+        try (InputStream in = LatencyReport.class.getResourceAsStream("/load/baseline.properties")) {
+            if (in != null) {
+                baseline.load(in);
+            }
+        }
+        Files.createDirectories(REPORT_DIR);
+        Path lastRun = REPORT_DIR.resolve("baseline.properties");
+        if (Files.exists(lastRun)) {
+            try (InputStream in = Files.newInputStream(lastRun)) {
+                measured.load(in);
+            }
+        }
+    }
+
+    void write(OpenModelLoadGenerator.Result result, String label) throws IOException {
+        String workload = result.workload().key();
+        String name = label.isEmpty() ? workload : label + "-" + workload;
+        write(REPORT_DIR.resolve(name + ".hgrm"), result.total());
+        for (var entry : result.byOperation().entrySet()) {
+            write(REPORT_DIR.resolve(name + "-" + entry.getKey().name().toLowerCase() + ".hgrm"), entry.getValue());
+        }
+        measured.setProperty(name + ".p99.millis", String.format("%.2f", result.p99Millis()));
+        try (OutputStream out = Files.newOutputStream(REPORT_DIR.resolve("baseline.properties"))) {
+            measured.store(out, "p99 of the last run, copy to src/test/resources/load/baseline.properties to accept");
+        }
+        System.out.printf("%s: %d requests (%.0f/s), %d errors, p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                name, result.total().getTotalCount(), result.requestsPerSecond(), result.errors(),
+                result.total().getValueAtPercentile(50) / 1e6, result.p99Millis(),
+                result.total().getValueAtPercentile(99.9) / 1e6, result.total().getMaxValue() / 1e6);
+    }
+
+    Double baselineP99Millis(Workload workload) {
+        String value = baseline.getProperty(workload.key() + ".p99.millis");
+        return value == null ? null : Double.valueOf(value);
+    }
+
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1e6);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package mori.java.springboottesting.load;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+// Load settings, overridable with -Dload.<name>=... (see the load-test profile in pom.xml)
+record LoadProfile(int requestsPerSecond, int maxInFlight, Duration warmup, Duration duration,
+                   int seedEmployees, double p99Tolerance, boolean gate, HttpClient.Version httpVersion,
+                   String label) {
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                Integer.getInteger("load.rate", 200),
+                Integer.getInteger("load.concurrency", 64),
+                Duration.parse(System.getProperty("load.warmup", "PT10S")),
+                Duration.parse(System.getProperty("load.duration", "PT30S")),
+                Integer.getInteger("load.seed", 1000),
+                Double.parseDouble(System.getProperty("load.p99-tolerance", "0.10")),
+                Boolean.parseBoolean(System.getProperty("load.gate", "true")),
+                HttpClient.Version.valueOf(System.getProperty("load.http-version", "HTTP_1_1")),
+                //prefixes the report files, e.g. undertow-h2 when comparing server configurations
+                System.getProperty("load.label", ""));
+    }
+}
@@ -0,0 +1,98 @@
+package mori.java.springboottesting.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+// Open-model load: requests are scheduled at a fixed arrival rate whatever the response times are, and each
+// latency is measured from the request's intended send time. A slow server therefore shows up as queueing
+// delay in the percentiles instead of silently lowering the offered load (coordinated omission).
+class OpenModelLoadGenerator {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient client;
+
+    private final String baseUrl;
+
+    private final List<Long> ids;
+
+    //HTTP_2 against a plain http URL negotiates h2c through an Upgrade on the first request
+    OpenModelLoadGenerator(String baseUrl, List<Long> ids, HttpClient.Version httpVersion) {
+        this.client = HttpClient.newBuilder()
+                .version(httpVersion)
+                .executor(Executors.newFixedThreadPool(8))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl;
+        this.ids = ids;
+    }
+
+    Result run(Workload workload, LoadProfile profile) throws InterruptedException {
+        drive(workload, profile, profile.warmup());
+        return drive(workload, profile, profile.duration());
+    }
+
+    private Result drive(Workload workload, LoadProfile profile, Duration duration) throws InterruptedException {
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(MAX_LATENCY_NANOS, 3));
+        }
+        AtomicLong errors = new AtomicLong();
+        Semaphore inFlight = new Semaphore(profile.maxInFlight());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.requestsPerSecond();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long intendedStart = intended;
+            Operation operation = workload.next();
+            //when every slot is busy the wait is charged to the next request's latency, not hidden
+            inFlight.acquire();
+            client.sendAsync(operation.request(baseUrl, ids), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        recorders.get(operation).recordValue(
+                                Math.min(MAX_LATENCY_NANOS, System.nanoTime() - intendedStart));
+                        if (failure != null || response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(profile.maxInFlight());
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Histogram total = new Histogram(MAX_LATENCY_NANOS, 3);
+        recorders.forEach((operation, recorder) -> {
+            Histogram histogram = recorder.getIntervalHistogram();
+            if (histogram.getTotalCount() > 0) {
+                histograms.put(operation, histogram);
+                total.add(histogram);
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(workload, histograms, total, errors.get(), total.getTotalCount() / seconds);
+    }
+
+    record Result(Workload workload, Map<Operation, Histogram> byOperation, Histogram total, long errors,
+                  double requestsPerSecond) {
+
+        double p99Millis() {
+            return total.getValueAtPercentile(99.0) / 1e6;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package mori.java.springboottesting.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+enum Operation {
+    GET_BY_ID, LIST, CREATE, UPDATE, SEARCH;
+
+    private static final AtomicLong UNIQUE = new AtomicLong(System.currentTimeMillis());
+
+    HttpRequest request(String baseUrl, List<Long> ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = ids.get(random.nextInt(ids.size()));
+        return switch (this) {
+            case GET_BY_ID -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees/" + id)).GET().build();
+            case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees")).GET().build();
+            case SEARCH -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees?lastName=Last" + random.nextInt(100)))
+                    .GET().build();
+            case CREATE -> json(HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees")), "POST",
+                    employeeJson("load" + UNIQUE.incrementAndGet() + "@java.com"));
+            case UPDATE -> json(HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees/" + id)), "PUT",
+                    employeeJson("updated" + UNIQUE.incrementAndGet() + "@java.com"));
+        };
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String employeeJson(String email) {
+        return "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"email\":\"" + email + "\"}";
+    }
+}
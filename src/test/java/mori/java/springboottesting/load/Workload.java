@@ -0,0 +1,35 @@
+package mori.java.springboottesting.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Request mixes in percent
+enum Workload {
+    //server configuration comparisons: GET /api/employees/{id} only
+    BY_ID(new int[]{100, 0, 0, 0, 0}),
+    READ_HEAVY(new int[]{90, 5, 0, 5, 0}),
+    WRITE_HEAVY(new int[]{20, 0, 50, 30, 0}),
+    LIST_HEAVY(new int[]{30, 70, 0, 0, 0}),
+    SEARCH(new int[]{20, 0, 0, 0, 80});
+
+    //indexed like Operation.values()
+    private final int[] mix;
+
+    Workload(int[] mix) {
+        this.mix = mix;
+    }
+
+    Operation next() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (int i = 0; i < mix.length; i++) {
+            roll -= mix[i];
+            if (roll < 0) {
+                return Operation.values()[i];
+            }
+        }
+        throw new IllegalStateException("Mix of " + this + " does not add up to 100");
+    }
+
+    String key() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
@@ -0,0 +1,46 @@
+package mori.java.springboottesting.model;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeTests {
+
+    @DisplayName("Junit test for equality following the id, not the other fields")
+    @Test
+    void givenSameId_whenComparing_thenEqualWhateverTheFields() {
+        Employee loaded = Employee.builder().id(1L).firstName("Mori").lastName("Java").email("mori@java.com").build();
+        Employee changed = loaded.toBuilder().firstName("Behi").build();
+
+        assertEquals(loaded, changed);
+        assertEquals(loaded.hashCode(), changed.hashCode());
+        assertNotEquals(loaded, loaded.toBuilder().id(2L).build());
+    }
+
+    @DisplayName("Junit test for new employees only being equal to themselves")
+    @Test
+    void givenNewEmployees_whenComparing_thenOnlyIdentical() {
+        Employee first = Employee.builder().firstName("Mori").lastName("Java").email("mori@java.com").build();
+        Employee second = first.toBuilder().build();
+
+        assertEquals(first, first);
+        assertNotEquals(first, second);
+    }
+
+    @DisplayName("Junit test for an employee staying in a set while it is changed and gets its id")
+    @Test
+    void givenEmployeeInSet_whenIdAssignedAndChanged_thenStillFound() {
+        Employee employee = Employee.builder().firstName("Mori").lastName("Java").email("mori@java.com").build();
+        Set<Employee> employees = new HashSet<>(Set.of(employee));
+
+        employee.setId(5L);
+        employee.setEmail("mori@java.org");
+
+        assertTrue(employees.contains(employee));
+    }
+}
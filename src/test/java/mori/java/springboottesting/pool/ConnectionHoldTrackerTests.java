@@ -0,0 +1,40 @@
+package mori.java.springboottesting.pool;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.h2.Driver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionHoldTrackerTests {
+
+    @DisplayName("Junit test for timing a connection from checkout to close, once per checkout")
+    @Test
+    void givenTrackedDataSource_whenConnectionClosedTwice_thenOneHoldIsRecorded() throws Exception {
+        //given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConnectionHoldTracker tracker = new ConnectionHoldTracker(meterRegistry, new ConnectionPoolProperties());
+        SimpleDriverDataSource target = new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:hold-tracker");
+        DataSource dataSource = tracker.wrap(target);
+
+        //when
+        Connection connection = dataSource.getConnection();
+        connection.createStatement().execute("select 1");
+        connection.close();
+        connection.close();
+
+        //then
+        Timer hold = meterRegistry.find("employees.service.connection.hold").tag("method", "none").timer();
+        assertNotNull(hold);
+        assertEquals(1, hold.count());
+        assertTrue(connection.isClosed());
+        assertTrue(dataSource.isWrapperFor(SimpleDriverDataSource.class));
+    }
+}
@@ -0,0 +1,28 @@
+package mori.java.springboottesting.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolConfigTests {
+
+    @DisplayName("Junit test for Hibernate trusting auto-commit to be off only on a Hikari pool configured that way")
+    @Test
+    void givenDataSources_whenCheckingAutoCommit_thenOnlyHikariWithAutoCommitOff() {
+        //given
+        HikariDataSource autoCommitOff = new HikariDataSource();
+        autoCommitOff.setAutoCommit(false);
+        HikariDataSource autoCommitOn = new HikariDataSource();
+
+        //when / then
+        assertTrue(ConnectionPoolConfig.poolDisablesAutoCommit(autoCommitOff));
+        assertTrue(ConnectionPoolConfig.poolDisablesAutoCommit(new DelegatingDataSource(autoCommitOff)));
+        assertFalse(ConnectionPoolConfig.poolDisablesAutoCommit(autoCommitOn));
+        assertFalse(ConnectionPoolConfig.poolDisablesAutoCommit(new SimpleDriverDataSource()));
+    }
+}
@@ -0,0 +1,42 @@
+package mori.java.springboottesting.pool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConnectionPoolSizerTests {
+
+    private final ConnectionPoolSizer sizer = new ConnectionPoolSizer(2, 40, 1.25);
+
+    @DisplayName("Junit test for pool settling under a steady load")
+    @Test
+    void givenSteadyLoad_whenTuningRepeatedly_thenPoolSettles() {
+        //given 200 checkouts/s held 20 ms each -> 4 connections busy on average
+        int size = 10;
+
+        //when
+        for (int window = 0; window < 20; window++) {
+            size = sizer.nextSize(size, 3, 200, 0.020);
+        }
+
+        //then
+        assertEquals(5, size);
+        assertEquals(5, sizer.nextSize(size, 3, 200, 0.020));
+    }
+
+    @DisplayName("Junit test for pool growing at once when threads wait for connections")
+    @Test
+    void givenBurst_whenTuning_thenPoolGrowsInOneStep() {
+        assertEquals(25, sizer.nextSize(5, 20, 200, 0.020));
+    }
+
+    @DisplayName("Junit test for pool size bounds")
+    @Test
+    void givenExtremeLoad_whenTuning_thenSizeStaysWithinBounds() {
+        assertEquals(40, sizer.nextSize(10, 500, 10_000, 0.5));
+        assertEquals(2, sizer.nextSize(2, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPoolSizer(10, 5, 1.0));
+    }
+}
@@ -0,0 +1,64 @@
+package mori.java.springboottesting.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmployeeQueryAllowListTests {
+
+    @DisplayName("Junit test for a sort being expanded to the columns of its index")
+    @Test
+    void givenLastNameFilter_whenSortingByFirstName_thenOrderFollowsNameIndex() {
+        PageRequest pageRequest = EmployeeQueryAllowList.pageRequest(
+                new EmployeeFilter(null, "Java", null), "firstName,desc", 2, 20);
+
+        assertEquals(2, pageRequest.getPageNumber());
+        assertEquals(20, pageRequest.getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "lastName", "firstName", "id"), pageRequest.getSort());
+    }
+
+    @DisplayName("Junit test for the default sort and page of a filter combination")
+    @Test
+    void givenNoSort_whenPageRequest_thenDefaultSortAndSize() {
+        PageRequest pageRequest = EmployeeQueryAllowList.pageRequest(
+                new EmployeeFilter(null, null, "java.com"), null, null, null);
+
+        assertEquals(0, pageRequest.getPageNumber());
+        assertEquals(EmployeeQueryAllowList.DEFAULT_PAGE_SIZE, pageRequest.getPageSize());
+        assertEquals(Sort.by("emailDomain", "emailNormalized", "id"), pageRequest.getSort());
+    }
+
+    @DisplayName("Junit test for rejecting queries no index serves")
+    @Test
+    void givenUnindexedQuery_whenPageRequest_thenRejected() {
+        //no index starts with email_domain followed by last_name
+        assertThrows(InvalidEmployeeQueryException.class, () -> EmployeeQueryAllowList.pageRequest(
+                new EmployeeFilter(null, "Java", "java.com"), null, null, null));
+        //sorting a last name match by email needs a sort step
+        assertThrows(InvalidEmployeeQueryException.class, () -> EmployeeQueryAllowList.pageRequest(
+                new EmployeeFilter(null, "Java", null), "email", null, null));
+        assertThrows(InvalidEmployeeQueryException.class, () -> EmployeeQueryAllowList.pageRequest(
+                new EmployeeFilter(), "id,sideways", null, null));
+        assertThrows(InvalidEmployeeQueryException.class, () -> EmployeeQueryAllowList.pageRequest(
+                new EmployeeFilter(), null, 0, EmployeeQueryAllowList.MAX_PAGE_SIZE + 1));
+    }
+
+    @DisplayName("Junit test for pages ending after the result window being rejected")
+    @Test
+    void givenPageEndingAfterWindow_whenPageRequest_thenRejected() {
+        //given
+        int size = EmployeeQueryAllowList.MAX_PAGE_SIZE;
+        int lastPage = EmployeeQueryAllowList.MAX_RESULT_WINDOW / size - 1;
+
+        //when / then
+        assertEquals(lastPage, EmployeeQueryAllowList.pageRequest(new EmployeeFilter(), null, lastPage, size).getPageNumber());
+        assertThrows(InvalidEmployeeQueryException.class, () -> EmployeeQueryAllowList.pageRequest(
+                new EmployeeFilter(), null, lastPage + 1, size));
+        assertThrows(InvalidEmployeeQueryException.class, () -> EmployeeQueryAllowList.pageRequest(
+                new EmployeeFilter(), null, 1_000_000, size));
+    }
+}
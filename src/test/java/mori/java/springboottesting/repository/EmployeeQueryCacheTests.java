@@ -0,0 +1,75 @@
+package mori.java.springboottesting.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import mori.java.springboottesting.model.Employee;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//query results are only cached once the rows are committed, so these tests do not run in a test transaction
+@DataJpaTest
+@ActiveProfiles({"h2", "l2cache"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmployeeQueryCacheTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Mori")
+                .lastName("Java")
+                .email("Mori@Mori.mo")
+                .build());
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @DisplayName("Junit test for JPQL name lookup served from the query cache")
+    @Test
+    void givenRepeatedJPQLLookup_whenFindByJPQL_thenQueryCacheHit() {
+        employeeRepository.findByJPQL("Mori", "Java");
+        employeeRepository.findByJPQL("Mori", "Java");
+
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @DisplayName("Junit test for native name lookup invalidated by a write to the employees table")
+    @Test
+    void givenCachedNativeLookup_whenEmployeeUpdated_thenQueryCacheMiss() {
+        employeeRepository.findByNativeSql("Mori", "Java");
+        employeeRepository.findByNativeSql("Mori", "Java");
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        employee.setEmail("mori@java.com");
+        employeeRepository.save(employee);
+        employeeRepository.findByNativeSql("Mori", "Java");
+
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(2, statistics.getQueryCacheMissCount());
+    }
+}
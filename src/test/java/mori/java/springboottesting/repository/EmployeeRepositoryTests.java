@@ -9,18 +9,26 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 @DataJpaTest
+@ActiveProfiles("h2")
 class EmployeeRepositoryTests {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Employee employee;
 
 
@@ -47,6 +55,17 @@ class EmployeeRepositoryTests {
         assertEquals(employee.getLastName(), savedEmployee.getLastName());
     }
 
+    @DisplayName("Junit test for an email being unique per tenant whatever its case")
+    @Test
+    void givenSavedEmployee_whenSameEmailInOtherCaseSaved_thenRejected() {
+        //given
+        employeeRepository.saveAndFlush(employee);
+        Employee duplicate = Employee.builder().firstName("Other").lastName("Java").email(" MORI@mori.mo").build();
+
+        //when / then
+        assertThrows(DataIntegrityViolationException.class, () -> employeeRepository.saveAndFlush(duplicate));
+    }
+
     @DisplayName("Junit test for get all employee by findAll operation")
     @Test
     void givenEmployeeList_whenFindAll_thenReturnEmployeesList() {
@@ -102,6 +121,42 @@ class EmployeeRepositoryTests {
         assertEquals(employee.getEmail(), employeeFound.getEmail());
     }
 
+    @DisplayName("Junit test for get employee by email ignoring case and surrounding spaces")
+    @Test
+    void givenEmployeeEmail_whenfindByEmailInOtherCase_thenReturnEmployeeObject() {
+        //given
+        employeeRepository.save(employee);
+
+        //when
+        Optional<Employee> employeeFound = employeeRepository.findByEmail(" mori@MORI.MO");
+
+        //then
+        assertThat(employeeFound).isPresent();
+        assertEquals(employee.getId(), employeeFound.get().getId());
+        assertEquals("Mori@Mori.mo", employeeFound.get().getEmail());
+    }
+
+    @DisplayName("Junit test for backfilling the normalized email of existing rows")
+    @Test
+    void givenRowWithoutNormalizedEmail_whenBackfill_thenFindByEmailMatches() {
+        //given
+        employeeRepository.saveAndFlush(employee);
+        entityManager.getEntityManager()
+                .createNativeQuery("update employees set email_normalized = null, email_domain = null")
+                .executeUpdate();
+        entityManager.clear();
+
+        //when
+        int filled = employeeRepository.backfillEmailColumns(10);
+
+        //then
+        assertEquals(1, filled);
+        assertEquals(0, employeeRepository.backfillEmailColumns(10));
+        Employee backfilled = employeeRepository.findByEmail("mori@mori.mo").get();
+        assertEquals(employee.getId(), backfilled.getId());
+        assertEquals("mori.mo", backfilled.getEmailDomain());
+    }
+
     @DisplayName("Junit test for update employee operation")
     @Test
     void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() {
@@ -0,0 +1,279 @@
+package mori.java.springboottesting.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResilientReadAspectTests {
+
+    private final MutableClock clock = new MutableClock();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final FlakyDirectory target = new FlakyDirectory();
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private final ResilienceProperties properties = new ResilienceProperties();
+
+    private ResilientReadAspect aspect;
+
+    private Directory directory;
+
+    @BeforeEach
+    void setup() {
+        properties.setQueryTimeout(Duration.ofMillis(200));
+        properties.setMinimumCalls(4);
+        properties.setSlidingWindowSize(4);
+        properties.setHalfOpenCalls(1);
+        proxy();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void cleanup() {
+        RequestContextHolder.resetRequestAttributes();
+        target.gate.countDown();
+        aspect.close();
+    }
+
+    private void proxy() {
+        if (aspect != null) {
+            aspect.close();
+        }
+        aspect = new ResilientReadAspect(properties, new CircuitBreaker(properties, clock),
+                new LastKnownGoodSnapshot(properties, clock), meterRegistry);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(aspect);
+        directory = factory.getProxy();
+    }
+
+    @DisplayName("Junit test for the last good result being served, marked stale, while the database fails")
+    @Test
+    void givenEarlierResult_whenDatabaseFails_thenStaleResultIsServed() {
+        //given
+        Instant readAt = clock.instant();
+        assertEquals(List.of("Mori"), directory.names());
+        clock.advance(Duration.ofSeconds(30));
+
+        //when
+        target.failing = true;
+        List<String> names = directory.names();
+
+        //then
+        assertEquals(List.of("Mori"), names);
+        assertEquals(readAt, request.getAttribute(ResilientReadAspect.STALE_SINCE_ATTRIBUTE));
+        assertEquals(1.0, meterRegistry.counter("employees.resilience.calls", "method", "names", "outcome", "failure").count());
+        assertEquals(1.0, meterRegistry.counter("employees.resilience.stale.responses", "method", "names").count());
+    }
+
+    @DisplayName("Junit test for a slow read being abandoned after the query timeout")
+    @Test
+    void givenSlowDatabase_whenReading_thenTimesOutToSnapshot() {
+        //given
+        directory.names();
+        target.delay = Duration.ofSeconds(5);
+
+        //when
+        long started = System.nanoTime();
+        List<String> names = directory.names();
+
+        //then
+        assertEquals(List.of("Mori"), names);
+        assertEquals(true, Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(2)) < 0);
+        assertEquals(1.0, meterRegistry.counter("employees.resilience.calls", "method", "names", "outcome", "timeout").count());
+    }
+
+    @DisplayName("Junit test for 503 when the database fails and nothing was read before")
+    @Test
+    void givenNoEarlierResult_whenDatabaseFails_thenUnavailable() {
+        //given
+        target.failing = true;
+
+        //when - then
+        assertThrows(EmployeeDataUnavailableException.class, () -> directory.names());
+        assertNull(request.getAttribute(ResilientReadAspect.STALE_SINCE_ATTRIBUTE));
+        assertEquals(1.0, meterRegistry.counter("employees.resilience.unavailable", "method", "names").count());
+    }
+
+    @DisplayName("Junit test for the circuit opening after repeated failures and closing after a good trial read")
+    @Test
+    void givenRepeatedFailures_whenReading_thenCircuitOpensAndRecovers() {
+        //given
+        directory.names();
+        target.failing = true;
+        for (int i = 0; i < 3; i++) {
+            directory.names();
+        }
+        int callsBeforeOpen = target.calls.get();
+
+        //when
+        directory.names();
+
+        //then
+        assertEquals(callsBeforeOpen, target.calls.get());
+        assertEquals(1.0, meterRegistry.get("employees.resilience.circuit.state").gauge().value());
+        assertEquals(1.0, meterRegistry.counter("employees.resilience.calls", "method", "names", "outcome", "circuit_open").count());
+
+        //when the open duration has passed and the database is back
+        target.failing = false;
+        clock.advance(Duration.ofSeconds(11));
+        directory.names();
+
+        //then
+        assertEquals(callsBeforeOpen + 1, target.calls.get());
+        assertEquals(0.0, meterRegistry.get("employees.resilience.circuit.state").gauge().value());
+    }
+
+    @DisplayName("Junit test for application errors passing through without tripping the circuit")
+    @Test
+    void givenApplicationError_whenReading_thenRethrown() {
+        //given
+        target.error = new IllegalArgumentException("bad id");
+
+        //when - then
+        assertThrows(IllegalArgumentException.class, () -> directory.names());
+        assertEquals(0.0, meterRegistry.get("employees.resilience.circuit.state").gauge().value());
+    }
+
+    @DisplayName("Junit test for reads being served from the snapshot while every worker thread is stuck")
+    @Test
+    void givenAllWorkersStuck_whenReading_thenServedFromSnapshot() {
+        //given one worker, stuck in a read that ignores interrupts like an unresponsive driver
+        properties.setMaxThreads(1);
+        properties.setMinimumCalls(1000);
+        properties.setSlidingWindowSize(1000);
+        proxy();
+        directory.names();
+        target.blocking = true;
+        //until the worker has gone back to the pool and taken the read that gets stuck
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (target.calls.get() < 2 && System.nanoTime() < deadline) {
+            assertEquals(List.of("Mori"), directory.names());
+        }
+        double executorFull = meterRegistry.counter("employees.resilience.calls", "method", "names", "outcome", "executor_full").count();
+
+        //when
+        List<String> names = directory.names();
+
+        //then
+        assertEquals(List.of("Mori"), names);
+        assertEquals(2, target.calls.get());
+        assertEquals(executorFull + 1, meterRegistry.counter("employees.resilience.calls", "method", "names", "outcome", "executor_full").count());
+    }
+
+    @DisplayName("Junit test for reads cancelled before a worker started them giving their bulkhead permit back")
+    @Test
+    void givenTimeoutBeforeWorkerStarts_whenReading_thenBulkheadPermitReleased() throws InterruptedException {
+        //given a snapshot, and a timeout that expires before most workers pick their read up
+        properties.setMinimumCalls(1000);
+        properties.setSlidingWindowSize(1000);
+        proxy();
+        directory.names();
+        properties.setQueryTimeout(Duration.ZERO);
+
+        //when
+        for (int i = 0; i < 100; i++) {
+            assertEquals(List.of("Mori"), directory.names());
+        }
+
+        //then every permit comes back, whether the read was cancelled before it started or ran to its end
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (availablePermits() < properties.getMaxConcurrentCalls() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(properties.getMaxConcurrentCalls(), availablePermits());
+        assertEquals(0.0, meterRegistry.counter("employees.resilience.calls", "method", "names", "outcome", "bulkhead_full").count());
+    }
+
+    private int availablePermits() {
+        return (int) meterRegistry.get("employees.resilience.bulkhead.available").tag("method", "names").gauge().value();
+    }
+
+    interface Directory {
+        List<String> names();
+    }
+
+    static class FlakyDirectory implements Directory {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        volatile boolean failing;
+
+        volatile Duration delay = Duration.ZERO;
+
+        volatile RuntimeException error;
+
+        volatile boolean blocking;
+
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        @Override
+        @ResilientRead
+        public List<String> names() {
+            calls.incrementAndGet();
+            while (blocking && gate.getCount() > 0) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    //keeps waiting, as a driver call that does not answer to interrupts
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            if (failing) {
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of("Mori");
+        }
+    }
+
+    static class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
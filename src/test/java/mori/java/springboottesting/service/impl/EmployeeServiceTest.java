@@ -3,19 +3,25 @@ package mori.java.springboottesting.service.impl;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import mori.java.springboottesting.email.EmailFilter;
+import mori.java.springboottesting.event.EmployeeEvent;
+import mori.java.springboottesting.exception.EmployeeAlreadyExistsException;
 import mori.java.springboottesting.exception.ResourceNotFoundException;
+import mori.java.springboottesting.model.ArchivedEmployee;
 import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.repository.EmployeeArchiveRepository;
 import mori.java.springboottesting.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -27,6 +33,15 @@ class EmployeeServiceTest {
     @Mock
     private EmployeeRepository repository;
 
+    @Mock
+    private EmployeeArchiveRepository archiveRepository;
+
+    @Mock
+    private EmailFilter emailFilter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -52,6 +67,7 @@ class EmployeeServiceTest {
     @DisplayName("Junit test for Employee Service to Save Employee")
     @Test
     void saveEmployee() {
+        given(emailFilter.mightContain(employee.getEmail())).willReturn(true);
         given(repository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
         when(repository.save(employee)).thenReturn(employee);
 
@@ -59,14 +75,30 @@ class EmployeeServiceTest {
 
         assertNotNull(savedEmployee);
         verify(repository, times(1)).save(any());
+        verify(emailFilter).recordFalsePositive();
+        verify(emailFilter).add(employee.getEmail());
+    }
+
+    @DisplayName("Junit test for Employee Service to Save Employee with an email the filter has never seen")
+    @Test
+    void saveEmployeeSkipsLookupForNewEmail() {
+        given(emailFilter.mightContain(employee.getEmail())).willReturn(false);
+        when(repository.save(employee)).thenReturn(employee);
+
+        Employee savedEmployee = employeeService.saveEmployee(employee);
+
+        assertNotNull(savedEmployee);
+        verify(repository, never()).findByEmail(any());
+        verify(emailFilter).add(employee.getEmail());
     }
 
     @DisplayName("Junit test for Employee Service to Save Employee with existing email")
     @Test
     void saveEmployeeThrowsException() {
+        when(emailFilter.mightContain(employee.getEmail())).thenReturn(true);
         when(repository.findByEmail(employee.getEmail())).thenReturn(Optional.ofNullable(employee));
 
-        assertThrows(ResourceNotFoundException.class, () -> {
+        assertThrows(EmployeeAlreadyExistsException.class, () -> {
             employeeService.saveEmployee(employee);
         });
         verify(repository, never()).save(any(Employee.class));
@@ -76,18 +108,36 @@ class EmployeeServiceTest {
     @DisplayName("Junit test for Employee Service to getAllEmployees method")
     @Test
     void getAllEmployee() {
-        when(repository.findAll()).thenReturn(List.of(employee, employee2));
+        when(repository.findByArchivedFalse()).thenReturn(List.of(employee, employee2));
 
         List<Employee> allEmployees = employeeService.getAllEmployees();
         assertNotNull(allEmployees);
         assertEquals(2, allEmployees.size());
-        verify(repository, times(1)).findAll();
+        verify(repository, times(1)).findByArchivedFalse();
+        verify(archiveRepository, never()).findAll();
+    }
+
+    @DisplayName("Junit test for Employee Service to getAllEmployees method including archived employees")
+    @Test
+    void getAllEmployeeIncludingArchived() {
+        ArchivedEmployee archivedEmployee = ArchivedEmployee.builder()
+                .id(3L)
+                .firstName("Old")
+                .lastName("Java")
+                .email("old@java.com")
+                .build();
+        when(repository.findByArchivedFalse()).thenReturn(List.of(employee, employee2));
+        when(archiveRepository.findAll()).thenReturn(List.of(archivedEmployee));
+
+        List<Employee> allEmployees = employeeService.getAllEmployees(true);
+        assertEquals(3, allEmployees.size());
+        assertTrue(allEmployees.get(2).isArchived());
     }
 
     @DisplayName("Junit test for Employee Service to getAllEmployees method with empty list")
     @Test
     void getAllEmployeeEmptyList() {
-        when(repository.findAll()).thenReturn(Collections.emptyList());
+        when(repository.findByArchivedFalse()).thenReturn(Collections.emptyList());
 
         List<Employee> allEmployees = employeeService.getAllEmployees();
         assertThat(allEmployees).isEmpty();
@@ -103,6 +153,25 @@ class EmployeeServiceTest {
         verify(repository, times(1)).findById(anyLong());
     }
 
+    @DisplayName("Junit test for getById finding an employee the archive job moved out")
+    @Test
+    void getByIdFromArchive() {
+        ArchivedEmployee archivedEmployee = ArchivedEmployee.builder()
+                .id(7L)
+                .firstName("Old")
+                .lastName("Timer")
+                .email("old@timer.com")
+                .build();
+        when(repository.findById(7L)).thenReturn(Optional.empty());
+        when(archiveRepository.findById(7L)).thenReturn(Optional.of(archivedEmployee));
+
+        Optional<Employee> employeeFound = employeeService.getEmployeeById(7L);
+
+        assertTrue(employeeFound.isPresent());
+        assertTrue(employeeFound.get().isArchived());
+        assertEquals("old@timer.com", employeeFound.get().getEmail());
+    }
+
     @DisplayName("Junit test for updateEmployee method ")
     @Test
     void updateEmployee() {
@@ -117,14 +186,64 @@ class EmployeeServiceTest {
         assertEquals(newEmail, updatedEmployee.getEmail());
     }
 
+    @DisplayName("Junit test for updateEmployee by id method ")
+    @Test
+    void updateEmployeeById() {
+        Employee changes = Employee.builder().firstName("Baby").lastName("Java").email("update@update.com").build();
+        when(repository.findById(1L)).thenReturn(Optional.of(employee));
+        when(repository.save(employee)).thenReturn(employee);
+
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(1L, changes);
+        assertTrue(updatedEmployee.isPresent());
+        assertEquals("Baby", updatedEmployee.get().getFirstName());
+        assertEquals("update@update.com", updatedEmployee.get().getEmail());
+    }
+
+    @DisplayName("Junit test for updateEmployee by id method with unknown id ")
+    @Test
+    void updateEmployeeByIdNotFound() {
+        when(repository.findById(3L)).thenReturn(Optional.empty());
+
+        assertTrue(employeeService.updateEmployee(3L, employee2).isEmpty());
+        verify(repository, never()).save(any(Employee.class));
+    }
+
     @DisplayName("Junit test for deleteEmployee method ")
     @Test
     void deleteEmployee() {
         long emloyeeId = 1L;
-        willDoNothing().given(repository).deleteById(emloyeeId);
+        given(repository.deleteEmployeeById(emloyeeId)).willReturn(1);
 
         employeeService.deleteEmployee(emloyeeId);
-        verify(repository, times(1)).deleteById(emloyeeId);
+        verify(repository, times(1)).deleteEmployeeById(emloyeeId);
+        ArgumentCaptor<EmployeeEvent> event = ArgumentCaptor.forClass(EmployeeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(EmployeeEvent.Type.DELETED, event.getValue().getType());
+        assertEquals(emloyeeId, event.getValue().getId());
+
+    }
+
+    @DisplayName("Junit test for deleteEmployee method with unknown id ")
+    @Test
+    void deleteEmployeeNotFound() {
+        given(repository.deleteEmployeeById(3L)).willReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.deleteEmployee(3L));
+        verify(repository, never()).findById(anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @DisplayName("Junit test for archiveEmployee method ")
+    @Test
+    void archiveEmployee() {
+        when(repository.findById(1L)).thenReturn(Optional.of(employee));
+        when(repository.save(employee)).thenReturn(employee);
 
+        Optional<Employee> archivedEmployee = employeeService.archiveEmployee(1L);
+        assertTrue(archivedEmployee.isPresent());
+        assertTrue(archivedEmployee.get().isArchived());
+        ArgumentCaptor<EmployeeEvent> event = ArgumentCaptor.forClass(EmployeeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(EmployeeEvent.Type.ARCHIVED, event.getValue().getType());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package mori.java.springboottesting.shard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdGenerationConfigTests {
+
+    @DisplayName("Junit test for sharding refusing to start without a worker id")
+    @Test
+    void givenNoWorkerId_whenCustomizingHibernate_thenStartupFails() {
+        //when / then
+        assertThrows(IllegalStateException.class, () -> new IdGenerationConfig().snowflakeWorkerIdCustomizer(null));
+    }
+}
@@ -0,0 +1,60 @@
+package mori.java.springboottesting.shard;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardRouterTests {
+
+    @DisplayName("Junit test for hash sharding spreading ids issued one per millisecond evenly")
+    @Test
+    void givenSparseSnowflakeIds_whenHashed_thenEvenlySpread() {
+        //given
+        ShardRouter router = new ShardRouter(ShardingProperties.Strategy.HASH, 4, List.of());
+        int[] counts = new int[4];
+
+        //when
+        for (int i = 0; i < 40_000; i++) {
+            //sequence 0 and the same worker every time, as at low traffic
+            long id = new SnowflakeIds(3, Clock.fixed(Instant.parse("2026-03-01T00:00:00Z").plusMillis(i),
+                    ZoneOffset.UTC)).nextId();
+            counts[router.shardFor(id)]++;
+        }
+
+        //then
+        for (int count : counts) {
+            assertThat(count).isBetween(9_000, 11_000);
+        }
+    }
+
+    @DisplayName("Junit test for range sharding by boundaries")
+    @Test
+    void givenBoundaries_whenRouted_thenShardOfTheRange() {
+        //given
+        ShardRouter router = new ShardRouter(ShardingProperties.Strategy.RANGE, 3, List.of(100L, 200L));
+
+        //when / then
+        assertEquals(0, router.shardFor(1));
+        assertEquals(0, router.shardFor(99));
+        assertEquals(1, router.shardFor(100));
+        assertEquals(1, router.shardFor(199));
+        assertEquals(2, router.shardFor(200));
+        assertEquals(2, router.shardFor(Long.MAX_VALUE));
+    }
+
+    @DisplayName("Junit test for range sharding rejecting boundaries that do not match the shards")
+    @Test
+    void givenWrongBoundaries_whenCreated_thenThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardRouter(ShardingProperties.Strategy.RANGE, 3, List.of(100L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardRouter(ShardingProperties.Strategy.RANGE, 3, List.of(200L, 100L)));
+    }
+}
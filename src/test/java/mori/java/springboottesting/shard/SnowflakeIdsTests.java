@@ -0,0 +1,120 @@
+package mori.java.springboottesting.shard;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnowflakeIdsTests {
+
+    private final MutableClock clock = new MutableClock();
+
+    @DisplayName("Junit test for Snowflake ids being unique and increasing within one millisecond")
+    @Test
+    void givenOneMillisecond_whenNextId_thenUniqueAndIncreasing() {
+        //given
+        SnowflakeIds ids = new SnowflakeIds(7, clock);
+        Set<Long> issued = new HashSet<>();
+
+        //when
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) {
+            long id = ids.nextId();
+
+            //then
+            assertThat(id).isGreaterThan(previous);
+            assertThat(issued.add(id)).isTrue();
+            previous = id;
+        }
+        //64 per millisecond, the rest borrowed from the following milliseconds
+        assertThat(SnowflakeIds.timestampOf(previous)).isEqualTo(clock.instant().plusMillis(10_000 / 64));
+    }
+
+    @DisplayName("Junit test for Snowflake ids not repeating when the clock steps back")
+    @Test
+    void givenClockSteppedBack_whenNextId_thenStillIncreasing() {
+        //given
+        SnowflakeIds ids = new SnowflakeIds(7, clock);
+        long before = ids.nextId();
+
+        //when
+        clock.advance(Duration.ofSeconds(-5));
+        long after = ids.nextId();
+
+        //then
+        assertThat(after).isGreaterThan(before);
+        assertThat(SnowflakeIds.timestampOf(after)).isEqualTo(SnowflakeIds.timestampOf(before));
+    }
+
+    @DisplayName("Junit test for two workers never issuing the same id")
+    @Test
+    void givenTwoWorkers_whenNextIdAtTheSameTime_thenDifferentIds() {
+        //given
+        SnowflakeIds first = new SnowflakeIds(1, clock);
+        SnowflakeIds second = new SnowflakeIds(2, clock);
+
+        //when
+        long firstId = first.nextId();
+        long secondId = second.nextId();
+
+        //then
+        assertThat(firstId).isNotEqualTo(secondId);
+        assertThat(SnowflakeIds.timestampOf(firstId)).isEqualTo(clock.instant());
+    }
+
+    @DisplayName("Junit test for worker ids outside 6 bits being rejected")
+    @Test
+    void givenWorkerIdTooLarge_whenCreated_thenThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIds(SnowflakeIds.MAX_WORKER_ID + 1, clock));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIds(-1, clock));
+    }
+
+    @DisplayName("Junit test for Snowflake ids staying exact as JSON numbers until the end of their time range")
+    @Test
+    void givenLastMillisecond_whenNextId_thenWithin53Bits() {
+        //given
+        clock.now = SnowflakeIds.EPOCH.plusMillis((1L << 41) - 1);
+        SnowflakeIds ids = new SnowflakeIds(SnowflakeIds.MAX_WORKER_ID, clock);
+
+        //when
+        long last = 0;
+        for (int i = 0; i < 64; i++) {
+            last = ids.nextId();
+        }
+
+        //then
+        assertThat(last).isEqualTo((1L << 53) - 1);
+    }
+
+    static class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2026-03-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package mori.java.springboottesting.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlMonitorTests {
+
+    private static final String SELECT_BY_ID = "select first_name from employees where id = ?";
+
+    private final SqlMonitorProperties properties = new SqlMonitorProperties();
+
+    private JdbcDataSource h2;
+
+    private DataSource dataSource;
+
+    private Connection keepAlive;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-monitor;DB_CLOSE_DELAY=-1");
+        keepAlive = h2.getConnection();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("create table employees (id bigint primary key, first_name varchar(255))");
+            for (int id = 1; id <= 10; id++) {
+                statement.execute("insert into employees values (" + id + ", 'First" + id + "')");
+            }
+        }
+        properties.setRepeatedStatementThreshold(3);
+        dataSource = MonitoringDataSource.wrap(h2, new SqlMonitor(properties));
+    }
+
+    @AfterEach
+    void cleanup() throws SQLException {
+        RequestStatements.detach();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("drop table employees");
+        }
+        keepAlive.close();
+    }
+
+    @DisplayName("Junit test for statements and rows being counted against the current request")
+    @Test
+    void givenRequest_whenQuerying_thenStatementsAndRowsAreCounted() throws SQLException {
+        //given
+        RequestStatements statements = new RequestStatements("GET /api/employees", 2);
+        RequestStatements.attach(statements);
+
+        //when
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select * from employees")) {
+            while (rows.next()) {
+                //read every row
+            }
+        }
+
+        //then
+        assertEquals(1, statements.getStatements());
+        assertEquals(10, statements.getRows());
+        assertFalse(statements.isOverBudget());
+        assertTrue(statements.getRepeated().isEmpty());
+    }
+
+    @DisplayName("Junit test for the same statement run in a loop being reported as N+1 with its origin")
+    @Test
+    void givenLoopOfLookups_whenThresholdReached_thenRepeatedStatementIsReported() throws SQLException {
+        //given
+        RequestStatements statements = new RequestStatements("GET /api/employees", 2);
+        RequestStatements.attach(statements);
+
+        //when
+        selectEachById(4);
+
+        //then
+        List<RequestStatements.Repeated> repeated = statements.getRepeated();
+        assertEquals(1, repeated.size());
+        assertEquals(SELECT_BY_ID, repeated.get(0).sql());
+        assertEquals(4, repeated.get(0).executions());
+        assertEquals("SqlMonitorTests.selectEachById", repeated.get(0).origin());
+        assertTrue(statements.isOverBudget());
+    }
+
+    @DisplayName("Junit test for fail mode throwing from the statement that breaks the budget")
+    @Test
+    void givenFailMode_whenBudgetExceeded_thenThrows() {
+        //given
+        properties.setBudgetMode(SqlMonitorProperties.BudgetMode.FAIL);
+        properties.setRepeatedStatementThreshold(100);
+        RequestStatements.attach(new RequestStatements("GET /api/employees/{id}", 1));
+
+        //when - then
+        assertThrows(StatementBudgetExceededException.class, () -> selectEachById(2));
+    }
+
+    @DisplayName("Junit test for statements outside a request passing through uncounted")
+    @Test
+    void givenNoRequest_whenQuerying_thenNothingIsCounted() throws SQLException {
+        //when
+        selectEachById(5);
+
+        //then
+        assertSame(h2, dataSource.unwrap(JdbcDataSource.class));
+    }
+
+    private void selectEachById(int count) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (int id = 1; id <= count; id++) {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID)) {
+                    statement.setLong(1, id);
+                    statement.executeQuery().close();
+                }
+            }
+        }
+    }
+}
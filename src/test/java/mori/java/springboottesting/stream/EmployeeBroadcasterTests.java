@@ -0,0 +1,115 @@
+package mori.java.springboottesting.stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import mori.java.springboottesting.event.EmployeeEvent;
+import mori.java.springboottesting.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeBroadcasterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    //drains never run, so queued events stay where the tests can see them
+    private final EmployeeBroadcaster broadcaster = new EmployeeBroadcaster(properties(), meterRegistry, task -> { });
+
+    @DisplayName("Junit test for events only reaching subscribers of the same tenant")
+    @Test
+    void givenTwoTenants_whenEmployeeChanges_thenOnlyItsTenantIsNotified() {
+        //given
+        EmployeeBroadcaster.Subscriber acme = broadcaster.register("acme", null);
+        EmployeeBroadcaster.Subscriber globex = broadcaster.register("globex", null);
+        Employee employee = Employee.builder().id(1L).firstName("Mori").lastName("Java").email("mori@java.com").build();
+
+        //when
+        broadcaster.onEmployeeEvent(new EmployeeEvent(EmployeeEvent.Type.CREATED, 1L, "acme", null, employee));
+
+        //then
+        assertEquals(1, acme.queue.size());
+        StreamEvent event = acme.queue.peek();
+        assertEquals("created", event.getName());
+        assertEquals(Map.of("id", 1L, "employee", employee), event.getData());
+        assertTrue(globex.queue.isEmpty());
+    }
+
+    @DisplayName("Junit test for a subscriber that falls behind being disconnected")
+    @Test
+    void givenFullQueue_whenPublishing_thenSlowSubscriberIsDropped() {
+        //given
+        broadcaster.register("acme", null);
+        EmployeeBroadcaster.Subscriber other = broadcaster.register("globex", null);
+
+        //when
+        for (long id = 1; id <= 4; id++) {
+            broadcaster.publish("acme", "deleted", Map.of("id", id));
+        }
+
+        //then
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(1.0, meterRegistry.counter("employees.stream.dropped.subscribers").count());
+        assertTrue(other.queue.isEmpty());
+    }
+
+    @DisplayName("Junit test for a reconnecting client receiving the events after its Last-Event-ID")
+    @Test
+    void givenLastEventId_whenRegistering_thenMissedEventsAreReplayed() {
+        //given
+        for (long id = 1; id <= 3; id++) {
+            broadcaster.publish("acme", "deleted", Map.of("id", id));
+        }
+        broadcaster.publish("globex", "deleted", Map.of("id", 4L));
+
+        //when
+        EmployeeBroadcaster.Subscriber subscriber = broadcaster.register("acme", broadcaster.eventId(1));
+
+        //then
+        List<Long> replayed = subscriber.queue.stream().map(StreamEvent::getSequence).toList();
+        assertEquals(List.of(2L, 3L), replayed);
+    }
+
+    @DisplayName("Junit test for a reset when the Last-Event-ID is no longer in the replay buffer")
+    @Test
+    void givenUnknownLastEventId_whenRegistering_thenResetIsSent() {
+        //given
+        for (long id = 1; id <= 10; id++) {
+            broadcaster.publish("acme", "deleted", Map.of("id", id));
+        }
+
+        //when
+        EmployeeBroadcaster.Subscriber evicted = broadcaster.register("acme", broadcaster.eventId(2));
+        EmployeeBroadcaster.Subscriber restarted = broadcaster.register("acme", "previous-boot-7");
+
+        //then
+        assertEquals("reset", evicted.queue.peek().getName());
+        assertEquals(1, evicted.queue.size());
+        assertEquals("reset", restarted.queue.peek().getName());
+    }
+
+    @DisplayName("Junit test for refusing subscribers above the configured maximum")
+    @Test
+    void givenMaxSubscribers_whenSubscribing_thenNullIsReturned() {
+        //given
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(broadcaster.subscribe("acme", null));
+        }
+
+        //when
+        //then
+        assertNull(broadcaster.subscribe("acme", null));
+    }
+
+    private static EmployeeStreamProperties properties() {
+        EmployeeStreamProperties properties = new EmployeeStreamProperties();
+        properties.setSubscriberBufferSize(3);
+        properties.setReplaySize(5);
+        properties.setMaxSubscribers(3);
+        return properties;
+    }
+}
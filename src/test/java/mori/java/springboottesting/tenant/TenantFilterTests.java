@@ -0,0 +1,167 @@
+package mori.java.springboottesting.tenant;
+
+import jakarta.servlet.FilterChain;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantFilterTests {
+
+    private final TenantFilter filter = new TenantFilter(0.1, 50, 100, () -> 10);
+
+    @DisplayName("Junit test for tenant header being visible during the request and cleared after it")
+    @Test
+    void givenTenantHeader_whenFiltering_thenTenantIsSetForTheRequestOnly() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TenantFilter.TENANT_HEADER, "acme");
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        //when
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen.set(TenantContext.getTenantId()));
+
+        //then
+        assertEquals("acme", seen.get());
+        assertEquals(TenantContext.DEFAULT_TENANT, TenantContext.getTenantId());
+    }
+
+    @DisplayName("Junit test for invalid tenant header being rejected")
+    @Test
+    void givenInvalidTenantHeader_whenFiltering_thenBadRequest() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TenantFilter.TENANT_HEADER, "acme; drop schema public");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        //when
+        filter.doFilter(request, response, chain);
+
+        //then
+        assertEquals(400, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @DisplayName("Junit test for a tenant over its concurrency limit being throttled without blocking other tenants")
+    @Test
+    void givenTenantAtLimit_whenFiltering_thenTooManyRequestsForThatTenantOnly() throws Exception {
+        //given one acme request holding the only permit
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> holders = holdRequests(filter, "acme", 1, release);
+
+        //when
+        MockHttpServletResponse throttled = new MockHttpServletResponse();
+        filter.doFilter(tenantRequest("acme"), throttled, new MockFilterChain());
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(tenantRequest("globex"), other, new MockFilterChain());
+        release.countDown();
+        for (Thread holder : holders) {
+            holder.join();
+        }
+
+        //then
+        assertEquals(429, throttled.getStatus());
+        assertEquals(200, other.getStatus());
+    }
+
+    @DisplayName("Junit test for two tenants at their limit leaving connections for a third tenant")
+    @Test
+    void givenTwoTenantsAtLimit_whenThirdTenantFilters_thenItGetsThrough() throws Exception {
+        //given a pool of 10 and 0.4 of it per tenant: acme and globex hold 4 requests each
+        TenantFilter poolShareFilter = new TenantFilter(0.4, 50, 100, () -> 10);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> holders = new ArrayList<>(holdRequests(poolShareFilter, "acme", 4, release));
+        holders.addAll(holdRequests(poolShareFilter, "globex", 4, release));
+
+        //when
+        MockHttpServletResponse acme = new MockHttpServletResponse();
+        poolShareFilter.doFilter(tenantRequest("acme"), acme, new MockFilterChain());
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        poolShareFilter.doFilter(tenantRequest("initech"), third, new MockFilterChain());
+        release.countDown();
+        for (Thread holder : holders) {
+            holder.join();
+        }
+
+        //then
+        assertEquals(429, acme.getStatus());
+        assertEquals(200, third.getStatus());
+    }
+
+    @DisplayName("Junit test for the per-tenant limit following a resized pool")
+    @Test
+    void givenPoolShrunk_whenFiltering_thenLimitFollowsLivePoolSize() throws Exception {
+        //given
+        AtomicInteger poolSize = new AtomicInteger(10);
+        TenantFilter poolShareFilter = new TenantFilter(0.4, 50, 100, poolSize::get);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> holders = holdRequests(poolShareFilter, "acme", 1, release);
+
+        //when the tuner shrinks the pool to 2
+        poolSize.set(2);
+        MockHttpServletResponse throttled = new MockHttpServletResponse();
+        poolShareFilter.doFilter(tenantRequest("acme"), throttled, new MockFilterChain());
+        release.countDown();
+        for (Thread holder : holders) {
+            holder.join();
+        }
+
+        //then
+        assertEquals(1, poolShareFilter.maxConcurrentRequestsPerTenant());
+        assertEquals(429, throttled.getStatus());
+    }
+
+    @DisplayName("Junit test for a per-tenant pool share that would let two tenants take the whole pool being rejected")
+    @Test
+    void givenShareNotBelowHalf_whenCreatingFilter_thenRejected() {
+        //when / then
+        assertThrows(IllegalArgumentException.class, () -> new TenantFilter(0.5, 50, 100, () -> 10));
+    }
+
+    //starts count requests of the tenant that stay inside the filter until release is counted down
+    private static List<Thread> holdRequests(TenantFilter filter, String tenantId, int count, CountDownLatch release)
+            throws InterruptedException {
+        CountDownLatch inside = new CountDownLatch(count);
+        FilterChain blocking = (req, res) -> {
+            inside.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        List<Thread> holders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Thread holder = new Thread(() -> {
+                try {
+                    filter.doFilter(tenantRequest(tenantId), new MockHttpServletResponse(), blocking);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            holder.start();
+            holders.add(holder);
+        }
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+        return holders;
+    }
+
+    private static MockHttpServletRequest tenantRequest(String tenantId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(TenantFilter.TENANT_HEADER, tenantId);
+        return request;
+    }
+}
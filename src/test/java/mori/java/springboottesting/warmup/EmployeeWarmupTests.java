@@ -0,0 +1,95 @@
+package mori.java.springboottesting.warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import mori.java.springboottesting.model.Employee;
+import mori.java.springboottesting.service.EmployeeService;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeWarmupTests {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+
+    @Mock
+    private HotKeyStore store;
+
+    @Mock
+    private HotEmployeeKeys hotKeys;
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Mock
+    private ApplicationContext context;
+
+    private final WarmupProperties properties = new WarmupProperties();
+
+    private EmployeeWarmup warmup;
+
+    @BeforeEach
+    void setup() {
+        properties.setTimeBudget(Duration.ofSeconds(5));
+        warmup = new EmployeeWarmup(properties, store, hotKeys, employeeService, context,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @DisplayName("Junit test for warm-up loading every hot employee under its tenant")
+    @Test
+    void givenHotKeys_whenRun_thenEmployeesLoadedAndRecordingStarts() {
+        //given
+        given(store.load(properties.getMaxKeys(), NOW.minus(properties.getKeyTtl())))
+                .willReturn(List.of(new HotKey(TenantContext.DEFAULT_TENANT, 1), new HotKey("acme", 2)));
+        //the loads run on warm-up threads, each should see the tenant of its key
+        Map<Long, String> tenants = new ConcurrentHashMap<>();
+        given(employeeService.getEmployeeById(anyLong())).willAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            tenants.put(id, TenantContext.getTenantId());
+            return Optional.of(Employee.builder().id(id).build());
+        });
+
+        //when
+        warmup.run(new DefaultApplicationArguments());
+
+        //then
+        assertThat(tenants).containsExactlyInAnyOrderEntriesOf(Map.of(1L, TenantContext.DEFAULT_TENANT, 2L, "acme"));
+        verify(hotKeys).startRecording();
+    }
+
+    @DisplayName("Junit test for an unreadable hot key list not holding back readiness")
+    @Test
+    void givenStoreDown_whenRun_thenSkippedAndRecordingStarts() {
+        //given
+        given(store.load(anyInt(), any(Instant.class))).willThrow(new DataAccessResourceFailureException("down"));
+
+        //when
+        warmup.run(new DefaultApplicationArguments());
+
+        //then
+        verify(employeeService, never()).getEmployeeById(anyLong());
+        verify(hotKeys).startRecording();
+    }
+}
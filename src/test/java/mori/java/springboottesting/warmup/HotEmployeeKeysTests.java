@@ -0,0 +1,88 @@
+package mori.java.springboottesting.warmup;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import mori.java.springboottesting.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class HotEmployeeKeysTests {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+
+    @Mock
+    private HotKeyStore store;
+
+    private final WarmupProperties properties = new WarmupProperties();
+
+    private HotEmployeeKeys hotKeys;
+
+    @BeforeEach
+    void setup() {
+        properties.setMaxKeys(2);
+        hotKeys = new HotEmployeeKeys(store, properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void cleanup() {
+        TenantContext.clear();
+    }
+
+    @DisplayName("Junit test for persisting the most read employees per tenant")
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenReads_whenPersisted_thenHottestKeysSaved() {
+        //given
+        hotKeys.startRecording();
+        read(1, 3);
+        read(2, 1);
+        read(3, 5);
+        TenantContext.setTenantId("acme");
+        read(1, 4);
+
+        //when
+        hotKeys.persist();
+
+        //then
+        ArgumentCaptor<Map<HotKey, Long>> saved = ArgumentCaptor.forClass(Map.class);
+        verify(store).save(saved.capture(), any(Instant.class));
+        assertThat(saved.getValue()).containsExactly(
+                Map.entry(new HotKey(TenantContext.DEFAULT_TENANT, 3), 5L),
+                Map.entry(new HotKey("acme", 1), 4L));
+        verify(store).purge(NOW.minus(properties.getKeyTtl()));
+    }
+
+    @DisplayName("Junit test for reads during the warm-up not being counted")
+    @Test
+    void givenNotRecording_whenRead_thenNothingPersisted() {
+        //given
+        read(1, 10);
+
+        //when
+        hotKeys.persist();
+
+        //then
+        verify(store, never()).save(anyMap(), any(Instant.class));
+    }
+
+    private void read(long id, int times) {
+        for (int i = 0; i < times; i++) {
+            hotKeys.record(id);
+        }
+    }
+}